@@ -0,0 +1,83 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the startup load of a config: plain {@link YamlConfiguration#loadConfiguration(File)} against
+ * the binary cache used by {@link AbstractConfig} ({@link ConfigCache#load(File)}). The generated file
+ * holds the given number of sections, each with a few values and a list, similar to a shop or kit config.
+ * <br><br>
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="ConfigLoadBenchmark -prof gc"}
+ * 
+ * @author Sommod
+ * @since 1.0
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConfigLoadBenchmark {
+	
+	@Param({"100", "10000", "100000"})
+	private int sections;
+	
+	private File folder, ymlFile;
+	
+	@Setup
+	public void setup() throws IOException, InvalidConfigurationException {
+		StringBuilder builder = new StringBuilder("items:\n");
+		
+		for(int i = 0; i < sections; i++) {
+			builder.append("  item-").append(i).append(":\n");
+			builder.append("    name: '&aItem ").append(i).append("'\n");
+			builder.append("    price: ").append(i * 1.5).append('\n');
+			builder.append("    amount: ").append(i % 64).append('\n');
+			builder.append("    enabled: ").append(i % 2 == 0).append('\n');
+			builder.append("    lore:\n    - First line of ").append(i).append("\n    - Second line\n");
+		}
+		
+		folder = Files.createTempDirectory("cfcore-bench").toFile();
+		ymlFile = new File(folder, "config.yml");
+		
+		Files.write(ymlFile.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+		
+		// Writes the cache, as it would be after the first enable
+		ConfigCache.load(ymlFile);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		for(File file : folder.listFiles())
+			file.delete();
+		
+		folder.delete();
+	}
+	
+	@Benchmark
+	public YamlConfiguration yamlLoad() { return YamlConfiguration.loadConfiguration(ymlFile); }
+	
+	@Benchmark
+	public YamlConfiguration binaryLoad() throws IOException, InvalidConfigurationException { return ConfigCache.load(ymlFile); }
+}
@@ -0,0 +1,79 @@
+package com.coldfyre.api;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the byte array path of {@link Crypto} across transformations, key sizes and payload
+ * sizes. The <i>warm</i> benchmarks reuse a single Crypto object (and its cached Cipher), while
+ * the <i>cold</i> benchmarks create a new Crypto object for every call, as plugins often do.
+ * <br><br>
+ * Run with the GC profiler to report the allocation rate alongside the throughput:<br>
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="CryptoBenchmark -prof gc"}
+ *
+ * @author Sommod
+ * @since 1.0
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CryptoBenchmark {
+
+	@Param({"CBC", "CTR", "GCM"})
+	private String transformation;
+
+	@Param({"128", "256"})
+	private int keySize;
+
+	@Param({"16", "1024", "65536", "1048576", "67108864"})
+	private int size;
+
+	private SecretKeySpec key;
+	private Crypto crypto;
+	private byte[] plain;
+	private byte[] encrypted;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		byte[] bytes = new byte[keySize / 8];
+
+		random.nextBytes(bytes);
+		key = new SecretKeySpec(bytes, "AES");
+		crypto = new Crypto(key, "AES", transformation, null);
+
+		plain = new byte[size];
+		random.nextBytes(plain);
+		encrypted = crypto.encrypt(plain);
+	}
+
+	@Benchmark
+	public byte[] encryptWarm() { return crypto.encrypt(plain); }
+
+	@Benchmark
+	public byte[] decryptWarm() { return crypto.decrypt(encrypted); }
+
+	@Benchmark
+	public byte[] encryptCold() { return new Crypto(key, "AES", transformation, null).encrypt(plain); }
+
+	@Benchmark
+	public byte[] decryptCold() { return new Crypto(key, "AES", transformation, null).decrypt(encrypted); }
+}
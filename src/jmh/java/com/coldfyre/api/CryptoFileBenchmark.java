@@ -0,0 +1,126 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the file paths of {@link Crypto}: the whole-file {@link Crypto#encryptToFile(byte[], File)}
+ * and {@link Crypto#decrypt(File)}, the parallel segmented format and the memory-mapped in-place mode.
+ * The segmented and mapped modes only depend on the key, as such only the whole-file benchmarks take the
+ * {@link WholeFile} state and its transformation parameter.
+ * <br><br>
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="CryptoFileBenchmark -prof gc"}
+ * 
+ * @author Sommod
+ * @since 1.0
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CryptoFileBenchmark {
+	
+	@Param({"128", "256"})
+	private int keySize;
+	
+	@Param({"16", "1024", "65536", "1048576", "67108864"})
+	private int size;
+	
+	private SecretKeySpec key;
+	private Crypto crypto;
+	private byte[] plain;
+	private File folder, plainFile, segmentedFile, outputFile;
+	
+	@Setup
+	public void setup() throws IOException {
+		Random random = new Random(42);
+		byte[] bytes = new byte[keySize / 8];
+		
+		random.nextBytes(bytes);
+		key = new SecretKeySpec(bytes, "AES");
+		crypto = new Crypto(key, "AES");
+		
+		plain = new byte[size];
+		random.nextBytes(plain);
+		
+		folder = Files.createTempDirectory("cfcore-bench").toFile();
+		plainFile = new File(folder, "plain.bin");
+		segmentedFile = new File(folder, "segmented.bin");
+		outputFile = new File(folder, "output.bin");
+		
+		Files.write(plainFile.toPath(), plain);
+		crypto.encryptSegmented(plainFile, segmentedFile);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		for(File file : folder.listFiles())
+			file.delete();
+		
+		folder.delete();
+	}
+	
+	@Benchmark
+	public void encryptToFile(WholeFile whole) { whole.crypto.encryptToFile(plain, outputFile); }
+	
+	@Benchmark
+	public byte[] decryptFile(WholeFile whole) { return whole.crypto.decrypt(whole.encryptedFile); }
+	
+	@Benchmark
+	public boolean encryptSegmented() { return crypto.encryptSegmented(plainFile, outputFile); }
+	
+	@Benchmark
+	public boolean decryptSegmented() { return crypto.decryptSegmented(segmentedFile, outputFile); }
+	
+	// Encrypts and then decrypts, leaving the file as it was for the next call
+	@Benchmark
+	public boolean mappedRoundTrip() { return crypto.encryptMapped(plainFile) && crypto.decryptMapped(plainFile); }
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * State of the whole-file benchmarks, the only ones that depend on the transformation.
+	 * 
+	 * @author Sommod
+	 * @since 1.0
+	 * 
+	 */
+	@State(Scope.Thread)
+	public static class WholeFile {
+		
+		@Param({"CBC", "CTR", "GCM"})
+		private String transformation;
+		
+		private Crypto crypto;
+		private File encryptedFile;
+		
+		@Setup
+		public void setup(CryptoFileBenchmark files) {
+			crypto = new Crypto(files.key, "AES", transformation, null);
+			encryptedFile = new File(files.folder, "encrypted-" + transformation + ".bin");
+			
+			crypto.encryptToFile(files.plain, encryptedFile);
+		}
+	}
+}
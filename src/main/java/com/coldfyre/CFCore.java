@@ -2,15 +2,21 @@ package com.coldfyre;
 
 import org.bukkit.plugin.java.JavaPlugin;
 
+import com.coldfyre.api.AbstractConfig;
+import com.coldfyre.api.OnlinePlayerIndex;
+
 public class CFCore extends JavaPlugin {
 	
 	@Override
 	public void onEnable() {
 		super.onEnable();
+		OnlinePlayerIndex.register(this);
 	}
 	
 	@Override
 	public void onDisable() {
+		AbstractConfig.shutdown();
+		OnlinePlayerIndex.unregister(this);
 		super.onDisable();
 	}
 }
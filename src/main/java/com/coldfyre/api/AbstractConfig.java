@@ -1,9 +1,33 @@
 package com.coldfyre.api;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.io.FilenameUtils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
 
 import com.coldfyre.api.manager.FilesManager;
 import com.coldfyre.api.utilities.InvalidFileFormatException;
@@ -13,6 +37,24 @@ import com.coldfyre.api.utilities.InvalidFileFormatException;
  * only supports YML files that Bukkit (Spigot) uses. Each YMl configuration file that
  * exists within the plugin should extend this class and have the specific methods and
  * data for use. 
+ * <br><br>
+ * Values that are read often should be declared as {@link ConfigKey}s and registered with
+ * {@link #register(ConfigKey...)}. Registered keys are resolved once into a flat snapshot, as
+ * such getting them does not walk the YML sections again.
+ * <br><br>
+ * The file can be reloaded in the background with {@link #reloadAsync()}. The new data is parsed
+ * and resolved away from the calling thread and then swapped in at once, as such readers never
+ * wait for a reload and never see a partially loaded config.
+ * <br><br>
+ * Calling {@link #watch()} reloads the config automatically whenever the file is changed. After each
+ * reload, the old and new values are compared and only the {@link ChangeListener}s of the paths that
+ * changed are called, as such plugins can update just the parts of their state that depend on them.
+ * <br><br>
+ * Changes made with {@link #set(String, Object)} (or marked with {@link #markDirty()}) are saved in the
+ * background. Many changes within the save interval are written to the file once, from the text of the
+ * data taken when the save starts (comments included), and the file is replaced atomically. Plugins are
+ * disabled before CFCore, as such each plugin should call {@link #flush()} on its configs, or
+ * {@link #flushAll(Plugin)}, within its own <code>onDisable</code> so that no change is lost.
  * 
  * @author Sommod
  * @version 1.0
@@ -20,15 +62,80 @@ import com.coldfyre.api.utilities.InvalidFileFormatException;
  */
 public abstract class AbstractConfig {
 	
-	protected YamlConfiguration bukkitConfig;
+	// Shared by every config for loading work, the threads are daemons so they never hold up a shutdown.
+	// Once shut down, the pending reloads and saves are dropped rather than waited for.
+	static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(2, new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "CFCore-Config-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			
+			return thread;
+		}
+	});
+	
+	static {
+		EXECUTOR.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		EXECUTOR.setRemoveOnCancelPolicy(true);
+	}
+	
+	protected volatile YamlConfiguration bukkitConfig;
 	protected File bukkitFile;
+	private final boolean binaryCache;
+	
+	private final List<ConfigKey<?>> keys = new CopyOnWriteArrayList<ConfigKey<?>>();
+	private final AtomicLong reloads = new AtomicLong();
+	private long applied;
+	private volatile Snapshot snapshot;
+	
+	private final Map<String, List<ChangeListener>> listeners = new ConcurrentHashMap<String, List<ChangeListener>>();
+	private final List<Runnable> updateListeners = new CopyOnWriteArrayList<Runnable>();
+	private ScheduledFuture<?> pendingReload;
+	private long debounce = -1;
+	
+	// Configs with changes that have not been saved yet
+	private static final Set<AbstractConfig> DIRTY = ConcurrentHashMap.newKeySet();
+	
+	private final AtomicBoolean dirty = new AtomicBoolean();
+	private final Object writeLock = new Object();
+	private volatile long saveInterval = 2000;
+	private volatile long savedLength = -1, savedModified = -1;
 	
 	public AbstractConfig(String path) {
 		this(new File(path));
 	}
 	
 	public AbstractConfig(File ymlFile) {
+		this(ymlFile, true);
+	}
+	
+	/**
+	 * Creates the config for the given file. If the file is not loaded, then the stored
+	 * YamlConfiguration is empty until the subclass loads the data itself (i.e. with
+	 * {@link #reloadAsync()} to keep the load off of the main thread).
+	 * 
+	 * @param ymlFile - YML File of the config
+	 * @param load - TRUE: Load the file now | FALSE: Leave it to the subclass
+	 */
+	protected AbstractConfig(File ymlFile, boolean load) {
+		this(ymlFile, load, false);
+	}
+	
+	/**
+	 * Creates the config for the given file, optionally keeping a binary cache of the parsed file next
+	 * to it (<i>&lt;name&gt;.yml.bin</i>). While the YML file does not change, later loads read the cache
+	 * rather than parsing the YAML again, which greatly shortens the enable time of large configs. The
+	 * cache is written again whenever the size, last modified time and hash show that the file changed.
+	 * 
+	 * @param ymlFile - YML File of the config
+	 * @param load - TRUE: Load the file now | FALSE: Leave it to the subclass
+	 * @param binaryCache - TRUE: Use the binary cache | FALSE: Always parse the YAML
+	 */
+	protected AbstractConfig(File ymlFile, boolean load, boolean binaryCache) {
 		bukkitFile = ymlFile;
+		this.binaryCache = binaryCache;
 		
 		try {
 			if(!FilenameUtils.getExtension(bukkitFile.getAbsolutePath()).equals("yml"))
@@ -37,7 +144,270 @@ public abstract class AbstractConfig {
 			FilesManager.LogException(e);
 		}
 		
-		bukkitConfig = YamlConfiguration.loadConfiguration(bukkitFile);
+		bukkitConfig = new YamlConfiguration();
+		
+		if(load) {
+			try {
+				bukkitConfig = parse();
+			} catch (IOException | InvalidConfigurationException e) {
+				FilesManager.LogException(e);
+			}
+		}
+		
+		snapshot = new Snapshot(bukkitConfig, keys);
+	}
+	
+	/**
+	 * Reads the file into a new YamlConfiguration. This may be called from a background thread, as
+	 * such it must not change the state of the config. Subclasses that store the file in another
+	 * format override this to read it, in which case the binary cache is not used. A missing file is
+	 * an empty config.
+	 * 
+	 * @return {@link YamlConfiguration} of the file
+	 * @throws IOException If the file cannot be read
+	 * @throws InvalidConfigurationException If the file is not valid YAML
+	 */
+	protected YamlConfiguration parse() throws IOException, InvalidConfigurationException {
+		if(binaryCache)
+			return ConfigCache.load(bukkitFile);
+		
+		YamlConfiguration config = new YamlConfiguration();
+		
+		if(bukkitFile.exists())
+			config.load(bukkitFile);
+		
+		return config;
+	}
+	
+	/**
+	 * Reads the file again on the calling thread and swaps the new data in. If the file cannot be
+	 * read or parsed, then the error is logged and the current data is kept.
+	 * 
+	 * @return True - If the file was loaded
+	 */
+	public boolean reload() {
+		long reload = reloads.incrementAndGet();
+		YamlConfiguration config;
+		
+		try {
+			config = parse();
+		} catch (IOException | InvalidConfigurationException e) {
+			FilesManager.LogException(e);
+			return false;
+		}
+		
+		YamlConfiguration previous = apply(reload, config, new Snapshot(config, keys));
+		
+		if(previous == null)
+			return true;
+		
+		notifyUpdate();
+		
+		if(!listeners.isEmpty())
+			notifyChanges(previous, config);
+		
+		return true;
+	}
+	
+	/**
+	 * Reads the file again on a background thread and swaps the new data in once it has been parsed
+	 * and resolved. Until then, the current data is still used. If several reloads overlap, then the
+	 * data of the latest one is kept.
+	 * 
+	 * @return {@link CompletableFuture} completed once the new data is in use
+	 */
+	public CompletableFuture<Void> reloadAsync() {
+		try {
+			return CompletableFuture.runAsync(this::reload, EXECUTOR);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+	
+	// Swaps in the new data, unless a later reload has already been applied. Returns the replaced data.
+	private synchronized YamlConfiguration apply(long reload, YamlConfiguration config, Snapshot snapshot) {
+		if(reload < applied)
+			return null;
+		
+		YamlConfiguration previous = bukkitConfig;
+		
+		applied = reload;
+		this.snapshot = snapshot;
+		bukkitConfig = config;
+		
+		return previous;
+	}
+	
+	/**
+	 * Starts reloading this config whenever its file is changed, waiting half a second after the
+	 * last change so that a file being written is only reloaded once.
+	 * 
+	 * @return True - If the file is being watched
+	 */
+	public boolean watch() { return watch(500); }
+	
+	/**
+	 * Starts reloading this config whenever its file is changed. The reload happens in the background
+	 * once the file has not changed for the given time.
+	 * 
+	 * @param debounceMillis - Milliseconds to wait after the last change
+	 * @return True - If the file is being watched
+	 */
+	public synchronized boolean watch(long debounceMillis) {
+		// Registered again even if already watching, as the watcher forgets every file once closed
+		boolean watching = ConfigWatcher.watch(this, bukkitFile.getAbsoluteFile().toPath());
+		
+		if(watching)
+			debounce = Math.max(0, debounceMillis);
+		
+		return watching;
+	}
+	
+	/**
+	 * Stops reloading this config when its file is changed. This should be called within the
+	 * <code>onDisable</code> of the plugin for every watched config.
+	 */
+	public synchronized void unwatch() {
+		if(debounce < 0)
+			return;
+		
+		ConfigWatcher.unwatch(this, bukkitFile.getAbsoluteFile().toPath());
+		debounce = -1;
+		
+		if(pendingReload != null)
+			pendingReload.cancel(false);
+	}
+	
+	// Called by the watcher when the file changes, restarting the wait of any pending reload
+	synchronized void scheduleReload() {
+		if(debounce < 0)
+			return;
+		
+		if(pendingReload != null)
+			pendingReload.cancel(false);
+		
+		try {
+			pendingReload = EXECUTOR.schedule(() -> {
+				// The change is the file this config saved, as such there is nothing new to load
+				if(bukkitFile.length() == savedLength && bukkitFile.lastModified() == savedModified)
+					return;
+				
+				reload();
+			}, debounce, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			// The configs were shut down, as such the file is no longer reloaded
+		}
+	}
+	
+	/**
+	 * Adds a listener that is called after a reload for each value at or below the given path that
+	 * changed. An empty path listens to every value. Listeners are called on the thread that reloaded
+	 * the config, as such any Bukkit API used within them should be scheduled onto the main thread.
+	 * 
+	 * @param path - Path of the value or section
+	 * @param listener - Listener to call
+	 */
+	public void addChangeListener(String path, ChangeListener listener) {
+		listeners.computeIfAbsent(path, p -> new CopyOnWriteArrayList<ChangeListener>()).add(listener);
+	}
+	
+	/**
+	 * Removes a listener that was added for the given path.
+	 * 
+	 * @param path - Path of the value or section
+	 * @param listener - Listener to remove
+	 */
+	public void removeChangeListener(String path, ChangeListener listener) {
+		List<ChangeListener> list = listeners.get(path);
+		
+		if(list != null)
+			list.remove(listener);
+	}
+	
+	/**
+	 * Binds the section at the given path onto a new record or POJO. See {@link ConfigBinder}.
+	 * 
+	 * @param <T> Type of the object
+	 * @param path - Path of the section, or an empty String for the whole file
+	 * @param type - Record or POJO class
+	 * @return New object, or null if the section does not exist or cannot be bound
+	 */
+	protected <T> T bind(String path, Class<T> type) {
+		YamlConfiguration config = snapshot.config;
+		
+		return ConfigBinder.bind(path.isEmpty() ? config : config.getConfigurationSection(path), type);
+	}
+	
+	/**
+	 * Binds each child section of the section at the given path onto a new record or POJO. See {@link ConfigBinder}.
+	 * 
+	 * @param <T> Type of the objects
+	 * @param path - Path of the section, or an empty String for the whole file
+	 * @param type - Record or POJO class
+	 * @return Unmodifiable Map of the objects by the key of their section
+	 */
+	protected <T> Map<String, T> bindAll(String path, Class<T> type) {
+		YamlConfiguration config = snapshot.config;
+		
+		return ConfigBinder.bindAll(path.isEmpty() ? config : config.getConfigurationSection(path), type);
+	}
+	
+	/**
+	 * Creates a read-only, memory compact copy of the data in use. See {@link CompactConfig}.
+	 * 
+	 * @return {@link CompactConfig} of the data
+	 */
+	protected CompactConfig toCompact() { return CompactConfig.of(snapshot.config); }
+	
+	// Adds a task that is run whenever the data in use changes, used by configs built on this one
+	void addUpdateListener(Runnable listener) { updateListeners.add(listener); }
+	
+	void removeUpdateListener(Runnable listener) { updateListeners.remove(listener); }
+	
+	// Runs the update listeners, after the data in use was replaced or changed
+	void notifyUpdate() { updateListeners.forEach(Runnable::run); }
+	
+	// Compares every value of the old and new data, calling the listeners of the changed paths
+	private void notifyChanges(YamlConfiguration previous, YamlConfiguration config) {
+		Map<String, Object> oldValues = getLeaves(previous);
+		Map<String, Object> newValues = getLeaves(config);
+		Set<String> paths = new LinkedHashSet<String>(oldValues.keySet());
+		
+		paths.addAll(newValues.keySet());
+		
+		for(String path : paths) {
+			Object oldValue = oldValues.get(path);
+			Object newValue = newValues.get(path);
+			
+			if(Objects.equals(oldValue, newValue))
+				continue;
+			
+			for(Map.Entry<String, List<ChangeListener>> entry : listeners.entrySet()) {
+				String listened = entry.getKey();
+				
+				if(!listened.isEmpty() && !path.equals(listened) && !path.startsWith(listened + "."))
+					continue;
+				
+				for(ChangeListener listener : entry.getValue()) {
+					try {
+						listener.onChange(path, oldValue, newValue);
+					} catch (Exception e) {
+						FilesManager.LogException(e);
+					}
+				}
+			}
+		}
+	}
+	
+	// Gets every value that is not a section, by its full path
+	private static Map<String, Object> getLeaves(YamlConfiguration config) {
+		Map<String, Object> leaves = new LinkedHashMap<String, Object>();
+		
+		for(Map.Entry<String, Object> entry : config.getValues(true).entrySet())
+			if(!(entry.getValue() instanceof ConfigurationSection))
+				leaves.put(entry.getKey(), entry.getValue());
+		
+		return leaves;
 	}
 	
 	/**
@@ -55,4 +425,402 @@ public abstract class AbstractConfig {
 	 * @return {@link YamlConfigurtion}
 	 */
 	protected YamlConfiguration getYamlConfiguration() { return bukkitConfig; }
+	
+	/**
+	 * Registers the given keys to this config and resolves their values. This is normally
+	 * called within the constructor of the subclass.
+	 * 
+	 * @param keys - Keys to register
+	 */
+	protected void register(ConfigKey<?>... keys) {
+		this.keys.addAll(Arrays.asList(keys));
+		refresh();
+	}
+	
+	/**
+	 * Resolves every registered key again from the stored YamlConfiguration. This must be called
+	 * after the YamlConfiguration has been changed or replaced for the registered keys to reflect it.
+	 */
+	protected void refresh() {
+		synchronized (this) {
+			snapshot = new Snapshot(bukkitConfig, keys);
+		}
+		
+		notifyUpdate();
+	}
+	
+	/**
+	 * Gets the value of the given key. Keys that are not registered are read from the
+	 * YamlConfiguration.
+	 * 
+	 * @param <T> Type of the value
+	 * @param key - Key of the value
+	 * @return Value of the key
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> T get(ConfigKey<T> key) {
+		Snapshot snapshot = this.snapshot;
+		int index = snapshot.indexOf(key);
+		
+		if(index < 0)
+			return key.read(snapshot.config);
+		
+		switch (key.getKind()) {
+		case INT:
+			return (T) Integer.valueOf((int) snapshot.numbers[index]);
+		case LONG:
+			return (T) Long.valueOf(snapshot.numbers[index]);
+		case DOUBLE:
+			return (T) Double.valueOf(Double.longBitsToDouble(snapshot.numbers[index]));
+		case BOOLEAN:
+			return (T) Boolean.valueOf(snapshot.numbers[index] != 0);
+		default:
+			return (T) snapshot.objects[index];
+		}
+	}
+	
+	/**
+	 * Gets the value of the given Integer key without boxing.
+	 * 
+	 * @param key - Key of the value
+	 * @return INT - Value of the key
+	 */
+	protected int getInt(ConfigKey<Integer> key) {
+		Snapshot snapshot = this.snapshot;
+		int index = snapshot.indexOf(key);
+		
+		return index >= 0 ? (int) snapshot.numbers[index] : key.read(snapshot.config);
+	}
+	
+	/**
+	 * Gets the value of the given Long key without boxing.
+	 * 
+	 * @param key - Key of the value
+	 * @return LONG - Value of the key
+	 */
+	protected long getLong(ConfigKey<Long> key) {
+		Snapshot snapshot = this.snapshot;
+		int index = snapshot.indexOf(key);
+		
+		return index >= 0 ? snapshot.numbers[index] : key.read(snapshot.config);
+	}
+	
+	/**
+	 * Gets the value of the given Double key without boxing.
+	 * 
+	 * @param key - Key of the value
+	 * @return DOUBLE - Value of the key
+	 */
+	protected double getDouble(ConfigKey<Double> key) {
+		Snapshot snapshot = this.snapshot;
+		int index = snapshot.indexOf(key);
+		
+		return index >= 0 ? Double.longBitsToDouble(snapshot.numbers[index]) : key.read(snapshot.config);
+	}
+	
+	/**
+	 * Gets the value of the given Boolean key without boxing.
+	 * 
+	 * @param key - Key of the value
+	 * @return BOOLEAN - Value of the key
+	 */
+	protected boolean getBoolean(ConfigKey<Boolean> key) {
+		Snapshot snapshot = this.snapshot;
+		int index = snapshot.indexOf(key);
+		
+		return index >= 0 ? snapshot.numbers[index] != 0 : key.read(snapshot.config);
+	}
+	
+	/**
+	 * Sets the value at the given path and marks the config to be saved. The registered keys at or
+	 * around the path are resolved again, as such they reflect the new value straight away. The value
+	 * is set within a copy of the YamlConfiguration which then replaces it, as such the data read by
+	 * other threads through the current snapshot never changes while it's read. Many values should be
+	 * changed through the YamlConfiguration followed by {@link #refresh()} instead, as each call copies
+	 * the whole config.
+	 * 
+	 * @param path - Path of the value
+	 * @param value - New value, or null to remove it
+	 */
+	protected void set(String path, Object value) {
+		synchronized (this) {
+			YamlConfiguration config = copy(bukkitConfig);
+			
+			config.set(path, value);
+			bukkitConfig = config;
+			snapshot = new Snapshot(snapshot, config, path);
+		}
+		
+		markDirty();
+	}
+	
+	// Copies the sections and comments of the config. Values that are not sections are shared, as they are replaced rather than changed.
+	private static YamlConfiguration copy(YamlConfiguration config) {
+		YamlConfiguration copy = new YamlConfiguration();
+		
+		copy.options().setHeader(config.options().getHeader());
+		copy.options().setFooter(config.options().getFooter());
+		copySection(config, copy);
+		
+		return copy;
+	}
+	
+	private static void copySection(ConfigurationSection from, ConfigurationSection to) {
+		for(String key : from.getKeys(false)) {
+			Object value = from.get(key);
+			
+			if(value instanceof ConfigurationSection)
+				copySection((ConfigurationSection) value, to.createSection(key));
+			else
+				to.set(key, value);
+			
+			to.setComments(key, from.getComments(key));
+			to.setInlineComments(key, from.getInlineComments(key));
+		}
+	}
+	
+	/**
+	 * Marks the config as changed, so that it's saved in the background once the save interval has
+	 * passed. Marking it again before then does not cause another save, as such many changes are
+	 * written at once. This should be called after changing the YamlConfiguration directly, as configs
+	 * built on this one (i.e. a {@link LayeredConfig}) are also told of the change.
+	 */
+	public void markDirty() {
+		notifyUpdate();
+		
+		if(!dirty.compareAndSet(false, true))
+			return;
+		
+		DIRTY.add(this);
+		
+		try {
+			EXECUTOR.schedule(this::flush, saveInterval, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			flush();
+		}
+	}
+	
+	/**
+	 * Checks if the config has changes that have not been saved yet.
+	 * 
+	 * @return True - If there are unsaved changes
+	 */
+	public boolean isDirty() { return dirty.get(); }
+	
+	/**
+	 * Sets the time to wait after the first change before the config is saved.
+	 * 
+	 * @param millis - Milliseconds to wait
+	 */
+	public void setSaveInterval(long millis) { saveInterval = Math.max(0, millis); }
+	
+	/**
+	 * Saves the config on the calling thread if it has unsaved changes. This also waits for a
+	 * save that is already being written.
+	 * 
+	 * @return True - If there was nothing to save or the config was saved
+	 */
+	public boolean flush() {
+		// Nothing is left to save, but a save that already started is waited for
+		if(!dirty.get()) {
+			synchronized (writeLock) {
+				return true;
+			}
+		}
+		
+		return save();
+	}
+	
+	/**
+	 * Saves the config to its file on the calling thread, whether or not it has changes. The text of the
+	 * data is taken first, as such changes made during the save are left for the next one.
+	 * 
+	 * @return True - If the config was saved
+	 */
+	public boolean save() {
+		synchronized (writeLock) {
+			String yaml;
+			
+			synchronized (this) {
+				dirty.set(false);
+				DIRTY.remove(this);
+				yaml = bukkitConfig.saveToString();
+			}
+			
+			byte[] data = encode(yaml);
+			
+			if(data == null)
+				return false;
+			
+			try {
+				Crypto.writeAtomically(bukkitFile.toPath(), data);
+				
+				savedLength = bukkitFile.length();
+				savedModified = bukkitFile.lastModified();
+				return true;
+			} catch (IOException e) {
+				FilesManager.LogException(e);
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Saves every config that has unsaved changes. This is called by {@link #shutdown()}.
+	 */
+	public static void flushAll() {
+		for(AbstractConfig config : DIRTY.toArray(new AbstractConfig[0]))
+			config.flush();
+	}
+	
+	/**
+	 * Stops the background work of every config and saves those that have unsaved changes. Files are no
+	 * longer watched, and reloads and saves that are running are waited for, while those that have not
+	 * started are dropped. After this, changes are saved on the calling thread and {@link #reloadAsync()}
+	 * fails. This is called within the <code>onDisable</code> of CFCore, which is disabled after the plugins
+	 * that depend on it.
+	 */
+	public static void shutdown() {
+		ConfigWatcher.close();
+		EXECUTOR.shutdown();
+		
+		try {
+			if(!EXECUTOR.awaitTermination(5, TimeUnit.SECONDS))
+				EXECUTOR.shutdownNow();
+		} catch (InterruptedException e) {
+			EXECUTOR.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		
+		flushAll();
+	}
+	
+	/**
+	 * Saves every config of the given plugin that has unsaved changes, being those whose file is within
+	 * the data folder of the plugin. This should be called within the <code>onDisable</code> of the plugin.
+	 * 
+	 * @param plugin - Plugin whose configs are saved
+	 */
+	public static void flushAll(Plugin plugin) {
+		Path folder = plugin.getDataFolder().getAbsoluteFile().toPath();
+		
+		for(AbstractConfig config : DIRTY.toArray(new AbstractConfig[0]))
+			if(config.bukkitFile.getAbsoluteFile().toPath().startsWith(folder))
+				config.flush();
+	}
+	
+	/**
+	 * Converts the text of the data into the bytes written to the file. Subclasses that store the
+	 * file in another format override this to write it.
+	 * 
+	 * @param yaml - YAML text of the data to save
+	 * @return Byte Array written to the file, or null if the file must not be written
+	 */
+	protected byte[] encode(String yaml) { return yaml.getBytes(StandardCharsets.UTF_8); }
+	
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Listener of the changes of a value after the config is reloaded.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 *
+	 */
+	@FunctionalInterface
+	public interface ChangeListener {
+		
+		/**
+		 * Called for a value that changed.
+		 * 
+		 * @param path - Full path of the value
+		 * @param oldValue - Previous value, or null if it was added
+		 * @param newValue - New value, or null if it was removed
+		 */
+		void onChange(String path, Object oldValue, Object newValue);
+	}
+	
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Flat copy of the values of the registered keys of one config, indexed by the id of each key. Primitive
+	 * values are stored within the <i>numbers</i> array (doubles as their raw bits), and any other value within
+	 * the <i>objects</i> array. The <i>keys</i> array holds each registered key at its id, as such checking that
+	 * a key is registered and getting its value are plain array reads. The arrays are as long as the highest id
+	 * of the registered keys, which stays small as keys are created once. The snapshot also keeps the
+	 * YamlConfiguration it was resolved from, so that keys which are not registered are read from the same data.
+	 * A snapshot is never changed once created.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 *
+	 */
+	static final class Snapshot {
+		final YamlConfiguration config;
+		final ConfigKey<?>[] keys;
+		final Object[] objects;
+		final long[] numbers;
+		
+		Snapshot(YamlConfiguration config, List<ConfigKey<?>> keys) {
+			int length = 0;
+			
+			for(ConfigKey<?> key : keys)
+				length = Math.max(length, key.getId() + 1);
+			
+			this.config = config;
+			this.keys = new ConfigKey<?>[length];
+			objects = new Object[length];
+			numbers = new long[length];
+			
+			for(ConfigKey<?> key : keys) {
+				this.keys[key.getId()] = key;
+				resolve(key.getId());
+			}
+		}
+		
+		// Copies the previous snapshot, resolving again only the keys at, above or below the changed path
+		Snapshot(Snapshot previous, YamlConfiguration config, String path) {
+			this.config = config;
+			keys = previous.keys;
+			objects = previous.objects.clone();
+			numbers = previous.numbers.clone();
+			
+			for(int i = 0; i < keys.length; i++) {
+				if(keys[i] == null)
+					continue;
+				
+				String keyPath = keys[i].getPath();
+				
+				if(keyPath.equals(path) || keyPath.startsWith(path + ".") || path.startsWith(keyPath + "."))
+					resolve(i);
+			}
+		}
+		
+		private void resolve(int index) {
+			ConfigKey<?> key = keys[index];
+			Object value = key.read(config);
+			
+			switch (key.getKind()) {
+			case INT:
+			case LONG:
+				numbers[index] = ((Number) value).longValue();
+				break;
+			case DOUBLE:
+				numbers[index] = Double.doubleToRawLongBits((Double) value);
+				break;
+			case BOOLEAN:
+				numbers[index] = (Boolean) value ? 1 : 0;
+				break;
+			default:
+				objects[index] = value;
+			}
+		}
+		
+		// Gets the slot of the value of the key, being its id, or -1 if the key is not registered to the config
+		int indexOf(ConfigKey<?> key) {
+			int id = key.getId();
+			
+			return id < keys.length && keys[id] == key ? id : -1;
+		}
+	}
 }
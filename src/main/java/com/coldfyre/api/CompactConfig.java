@@ -0,0 +1,377 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * Read-only, memory compact copy of a loaded config, meant for large configs that are only read (such as
+ * localized messages or item definitions). Rather than a map per section, every value is stored within flat
+ * arrays that are sorted by the full path of the value, which is found with a binary search. The paths are
+ * interned, as such configs sharing the same paths (i.e. a message file per language) share a single copy of
+ * them, and numbers and booleans are stored without boxing.
+ * <br><br>
+ * The getters follow the same rules as those of a {@link ConfigurationSection}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public final class CompactConfig {
+	
+	// Types of the stored values
+	private static final byte STRING = 0, INT = 1, LONG = 2, DOUBLE = 3, BOOLEAN = 4, LIST = 5, OBJECT = 6;
+	
+	private final String[] paths;
+	private final byte[] types;
+	
+	// Position of each value within the array of its type
+	private final int[] slots;
+	private final long[] numbers;
+	private final Object[] objects;
+	
+	private CompactConfig(String[] paths, byte[] types, int[] slots, long[] numbers, Object[] objects) {
+		this.paths = paths;
+		this.types = types;
+		this.slots = slots;
+		this.numbers = numbers;
+		this.objects = objects;
+	}
+	
+	/**
+	 * Loads the given YML file and keeps only its compact copy.
+	 * 
+	 * @param ymlFile - YML File to load
+	 * @return {@link CompactConfig} of the file
+	 */
+	public static CompactConfig load(@Nonnull File ymlFile) { return of(YamlConfiguration.loadConfiguration(ymlFile)); }
+	
+	/**
+	 * Creates a compact copy of the values within the given section.
+	 * 
+	 * @param section - Section to copy
+	 * @return {@link CompactConfig} of the section
+	 */
+	public static CompactConfig of(@Nonnull ConfigurationSection section) {
+		Map<String, Object> values = section.getValues(true);
+		List<String> paths = new ArrayList<String>(values.size());
+		
+		for(Map.Entry<String, Object> entry : values.entrySet())
+			if(!(entry.getValue() instanceof ConfigurationSection))
+				paths.add(entry.getKey().intern());
+		
+		String[] sorted = paths.toArray(new String[0]);
+		byte[] types = new byte[sorted.length];
+		int[] slots = new int[sorted.length];
+		int numberCount = 0, objectCount = 0;
+		
+		Arrays.sort(sorted);
+		
+		for(int i = 0; i < sorted.length; i++) {
+			types[i] = getType(values.get(sorted[i]));
+			slots[i] = isNumber(types[i]) ? numberCount++ : objectCount++;
+		}
+		
+		long[] numbers = new long[numberCount];
+		Object[] objects = new Object[objectCount];
+		
+		for(int i = 0; i < sorted.length; i++) {
+			Object value = values.get(sorted[i]);
+			
+			switch (types[i]) {
+			case INT:
+			case LONG:
+				numbers[slots[i]] = ((Number) value).longValue();
+				break;
+			case DOUBLE:
+				numbers[slots[i]] = Double.doubleToRawLongBits(((Number) value).doubleValue());
+				break;
+			case BOOLEAN:
+				numbers[slots[i]] = (Boolean) value ? 1 : 0;
+				break;
+			case LIST:
+				objects[slots[i]] = Collections.unmodifiableList(new ArrayList<Object>((List<?>) value));
+				break;
+			default:
+				objects[slots[i]] = value;
+			}
+		}
+		
+		return new CompactConfig(sorted, types, slots, numbers, objects);
+	}
+	
+	private static byte getType(Object value) {
+		if(value instanceof String)
+			return STRING;
+		
+		if(value instanceof Integer || value instanceof Short || value instanceof Byte)
+			return INT;
+		
+		if(value instanceof Long)
+			return LONG;
+		
+		if(value instanceof Double || value instanceof Float)
+			return DOUBLE;
+		
+		if(value instanceof Boolean)
+			return BOOLEAN;
+		
+		return value instanceof List ? LIST : OBJECT;
+	}
+	
+	private static boolean isNumber(byte type) { return type == INT || type == LONG || type == DOUBLE || type == BOOLEAN; }
+	
+	// Gets the position of the value, or a negative number if there is none
+	private int indexOf(String path) { return Arrays.binarySearch(paths, path); }
+	
+	// Gets the first position of a path within the given section
+	private int startOf(String prefix) {
+		int index = Arrays.binarySearch(paths, prefix);
+		return index < 0 ? -index - 1 : index;
+	}
+	
+	/**
+	 * Gets the number of values stored, not counting sections.
+	 * 
+	 * @return INT - Number of values
+	 */
+	public int size() { return paths.length; }
+	
+	/**
+	 * Checks if the given path is a value or a section.
+	 * 
+	 * @param path - Full path
+	 * @return True - If the path exists
+	 */
+	public boolean contains(String path) { return indexOf(path) >= 0 || isConfigurationSection(path); }
+	
+	/**
+	 * Checks if the given path is a section holding other values.
+	 * 
+	 * @param path - Full path
+	 * @return True - If the path is a section
+	 */
+	public boolean isConfigurationSection(String path) {
+		String prefix = path + ".";
+		int index = startOf(prefix);
+		
+		return index < paths.length && paths[index].startsWith(prefix);
+	}
+	
+	/**
+	 * Gets the keys within the given section, in sorted order. Sections that only held other
+	 * sections with no values are not kept.
+	 * 
+	 * @param path - Full path of the section, or an empty String for the top
+	 * @param deep - TRUE: Full paths of every value and section below | FALSE: Only the direct keys
+	 * @return Set of the keys
+	 */
+	public Set<String> getKeys(String path, boolean deep) {
+		String prefix = path.isEmpty() ? "" : path + ".";
+		Set<String> keys = new LinkedHashSet<String>();
+		
+		for(int i = startOf(prefix); i < paths.length && paths[i].startsWith(prefix); i++) {
+			String rest = paths[i].substring(prefix.length());
+			
+			if(!deep) {
+				int split = rest.indexOf('.');
+				keys.add(split < 0 ? rest : rest.substring(0, split));
+				continue;
+			}
+			
+			for(int split = rest.indexOf('.'); split >= 0; split = rest.indexOf('.', split + 1))
+				keys.add(rest.substring(0, split));
+			
+			keys.add(rest);
+		}
+		
+		return keys;
+	}
+	
+	/**
+	 * Gets the value at the given path. Numbers and booleans are boxed, as such the typed getters
+	 * should be used for them.
+	 * 
+	 * @param path - Full path
+	 * @return Value, or null if there is no value
+	 */
+	public Object get(String path) {
+		int index = indexOf(path);
+		
+		if(index < 0)
+			return null;
+		
+		long number = isNumber(types[index]) ? numbers[slots[index]] : 0;
+		
+		switch (types[index]) {
+		case INT:
+			return (int) number;
+		case LONG:
+			return number;
+		case DOUBLE:
+			return Double.longBitsToDouble(number);
+		case BOOLEAN:
+			return number != 0;
+		default:
+			return objects[slots[index]];
+		}
+	}
+	
+	/**
+	 * Gets the value at the given path as a String.
+	 * 
+	 * @param path - Full path
+	 * @return String - Value, or null if there is no value
+	 */
+	public String getString(String path) { return getString(path, null); }
+	
+	/**
+	 * Gets the value at the given path as a String.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if there is none
+	 * @return String - Value, or the default if there is no value
+	 */
+	public String getString(String path, String def) {
+		Object value = get(path);
+		return value == null ? def : value.toString();
+	}
+	
+	/**
+	 * Gets the number at the given path as an int.
+	 * 
+	 * @param path - Full path
+	 * @return INT - Value, or 0 if there is no number
+	 */
+	public int getInt(String path) { return getInt(path, 0); }
+	
+	/**
+	 * Gets the number at the given path as an int.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if there is none
+	 * @return INT - Value, or the default if there is no number
+	 */
+	public int getInt(String path, int def) {
+		int index = indexOf(path);
+		
+		switch (index < 0 ? OBJECT : types[index]) {
+		case INT:
+		case LONG:
+			return (int) numbers[slots[index]];
+		case DOUBLE:
+			return (int) Double.longBitsToDouble(numbers[slots[index]]);
+		default:
+			return def;
+		}
+	}
+	
+	/**
+	 * Gets the number at the given path as a long.
+	 * 
+	 * @param path - Full path
+	 * @return LONG - Value, or 0 if there is no number
+	 */
+	public long getLong(String path) { return getLong(path, 0); }
+	
+	/**
+	 * Gets the number at the given path as a long.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if there is none
+	 * @return LONG - Value, or the default if there is no number
+	 */
+	public long getLong(String path, long def) {
+		int index = indexOf(path);
+		
+		switch (index < 0 ? OBJECT : types[index]) {
+		case INT:
+		case LONG:
+			return numbers[slots[index]];
+		case DOUBLE:
+			return (long) Double.longBitsToDouble(numbers[slots[index]]);
+		default:
+			return def;
+		}
+	}
+	
+	/**
+	 * Gets the number at the given path as a double.
+	 * 
+	 * @param path - Full path
+	 * @return DOUBLE - Value, or 0 if there is no number
+	 */
+	public double getDouble(String path) { return getDouble(path, 0); }
+	
+	/**
+	 * Gets the number at the given path as a double.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if there is none
+	 * @return DOUBLE - Value, or the default if there is no number
+	 */
+	public double getDouble(String path, double def) {
+		int index = indexOf(path);
+		
+		switch (index < 0 ? OBJECT : types[index]) {
+		case INT:
+		case LONG:
+			return numbers[slots[index]];
+		case DOUBLE:
+			return Double.longBitsToDouble(numbers[slots[index]]);
+		default:
+			return def;
+		}
+	}
+	
+	/**
+	 * Gets the boolean at the given path.
+	 * 
+	 * @param path - Full path
+	 * @return BOOLEAN - Value, or false if there is no boolean
+	 */
+	public boolean getBoolean(String path) { return getBoolean(path, false); }
+	
+	/**
+	 * Gets the boolean at the given path.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if there is none
+	 * @return BOOLEAN - Value, or the default if there is no boolean
+	 */
+	public boolean getBoolean(String path, boolean def) {
+		int index = indexOf(path);
+		return index >= 0 && types[index] == BOOLEAN ? numbers[slots[index]] != 0 : def;
+	}
+	
+	/**
+	 * Gets the list at the given path as Strings.
+	 * 
+	 * @param path - Full path
+	 * @return Unmodifiable List of Strings, empty if there is no list
+	 */
+	public List<String> getStringList(String path) {
+		int index = indexOf(path);
+		
+		if(index < 0 || types[index] != LIST)
+			return Collections.emptyList();
+		
+		List<String> list = new ArrayList<String>();
+		
+		for(Object item : (List<?>) objects[slots[index]])
+			if(item != null)
+				list.add(item.toString());
+		
+		return Collections.unmodifiableList(list);
+	}
+}
@@ -0,0 +1,506 @@
+package com.coldfyre.api;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * Binds a section of a config onto a Java record or POJO. The first time a class is bound, its mapper
+ * is built once from the class and cached: records are created through their canonical constructor and
+ * POJOs through their no-argument constructor along with their setters (or fields). Each of these is kept
+ * as a {@link MethodHandle}, as such binding afterwards does not use reflection and can be run on every
+ * reload, even for thousands of entries.
+ * <br><br>
+ * A value is found by the name of the record component or field, or by the same name in <i>kebab-case</i>
+ * or <i>snake_case</i> (i.e. <code>displayName</code>, <code>display-name</code>, <code>display_name</code>).
+ * Supported types are Strings, primitives and their wrappers, enums (by name, ignoring case), Lists, Maps
+ * with String keys, and other records or POJOs, which are bound from their own section. Lists and Maps
+ * are unmodifiable. Numbers written as Strings are parsed by the parser of their type, and a value that does
+ * not fit its type exactly (i.e. <code>1.7</code> for an <code>int</code>, or a number out of its range) is
+ * a mismatch, which is logged and binds nothing rather than being rounded or cut.
+ * <br><br>
+ * <pre>
+ * public record Kit(String name, int cooldown, List&lt;String&gt; items) {}
+ * 
+ * Map&lt;String, Kit&gt; kits = ConfigBinder.bindAll(config.getConfigurationSection("kits"), Kit.class);
+ * </pre>
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public final class ConfigBinder {
+	
+	private static final ClassValue<Mapper> MAPPERS = new ClassValue<Mapper>() {
+		
+		@Override
+		protected Mapper computeValue(Class<?> type) {
+			try {
+				return type.isRecord() ? new RecordMapper(type) : new BeanMapper(type);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalArgumentException("The class " + type.getName() + " cannot be bound to a config.", e);
+			}
+		}
+	};
+	
+	private ConfigBinder() {}
+	
+	/**
+	 * Binds the given section onto a new object of the given class.
+	 * 
+	 * @param <T> Type of the object
+	 * @param section - Section containing the values
+	 * @param type - Record or POJO class
+	 * @return New object, or null if the section is null, the class cannot be bound or a value does not match its type
+	 */
+	public static <T> T bind(ConfigurationSection section, @Nonnull Class<T> type) {
+		if(section == null)
+			return null;
+		
+		try {
+			return type.cast(MAPPERS.get(type).bind(section));
+		} catch (RuntimeException e) {
+			FilesManager.LogException(e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Binds each child section of the given section onto a new object of the given class, such
+	 * as a section of shop items or kits.
+	 * 
+	 * @param <T> Type of the objects
+	 * @param section - Section containing the child sections
+	 * @param type - Record or POJO class
+	 * @return Unmodifiable Map of the objects by the key of their section, in the order of the file
+	 */
+	public static <T> Map<String, T> bindAll(ConfigurationSection section, @Nonnull Class<T> type) {
+		if(section == null)
+			return Collections.emptyMap();
+		
+		Map<String, T> objects = new LinkedHashMap<String, T>();
+		
+		for(String key : section.getKeys(false)) {
+			T object = bind(section.getConfigurationSection(key), type);
+			
+			if(object != null)
+				objects.put(key, object);
+		}
+		
+		return Collections.unmodifiableMap(objects);
+	}
+	
+	// Gets the value of the key from a section, or from a Map when the section was within a List
+	private static Object get(Object source, String key) {
+		if(source instanceof ConfigurationSection)
+			return ((ConfigurationSection) source).get(key);
+		
+		return ((Map<?, ?>) source).get(key);
+	}
+	
+	// Gets the first name of the property that is set within the source
+	private static Object find(Object source, String[] names) {
+		for(String name : names) {
+			Object value = get(source, name);
+			
+			if(value != null)
+				return value;
+		}
+		
+		return null;
+	}
+	
+	// Gets the names a property may be written as
+	private static String[] getNames(String name) {
+		String kebab = name.replaceAll("([a-z0-9])([A-Z])", "$1-$2").toLowerCase(Locale.ROOT);
+		
+		return kebab.equals(name) ? new String[] {name} : new String[] {name, kebab, kebab.replace('-', '_')};
+	}
+	
+	// Creates the converter of a raw config value into the given type
+	private static Converter getConverter(Class<?> type, Type generic) {
+		if(type == String.class)
+			return value -> value == null || value instanceof ConfigurationSection || value instanceof Map ? null : value.toString();
+		
+		if(type == int.class || type == Integer.class)
+			return getWholeConverter(type, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer::valueOf, number -> (int) number);
+		
+		if(type == long.class || type == Long.class)
+			return getWholeConverter(type, Long.MIN_VALUE, Long.MAX_VALUE, Long::valueOf, number -> number);
+		
+		if(type == double.class || type == Double.class)
+			return getDecimalConverter(type, Double::valueOf, Number::doubleValue);
+		
+		if(type == float.class || type == Float.class)
+			return getDecimalConverter(type, Float::valueOf, Number::floatValue);
+		
+		if(type == short.class || type == Short.class)
+			return getWholeConverter(type, Short.MIN_VALUE, Short.MAX_VALUE, Short::valueOf, number -> (short) number);
+		
+		if(type == byte.class || type == Byte.class)
+			return getWholeConverter(type, Byte.MIN_VALUE, Byte.MAX_VALUE, Byte::valueOf, number -> (byte) number);
+		
+		if(type == boolean.class || type == Boolean.class)
+			return value -> value instanceof Boolean ? value : value instanceof String ? Boolean.parseBoolean((String) value) : null;
+		
+		if(type.isEnum())
+			return value -> toEnum(type, value);
+		
+		if(type == List.class) {
+			Converter element = getConverter(getArgument(generic, 0), getArgumentType(generic, 0));
+			
+			return value -> {
+				if(!(value instanceof List))
+					return null;
+				
+				List<Object> list = new ArrayList<Object>();
+				
+				for(Object item : (List<?>) value) {
+					Object converted = element.convert(item);
+					
+					if(converted != null)
+						list.add(converted);
+				}
+				
+				return Collections.unmodifiableList(list);
+			};
+		}
+		
+		if(type == Map.class) {
+			Converter element = getConverter(getArgument(generic, 1), getArgumentType(generic, 1));
+			
+			return value -> {
+				if(!(value instanceof ConfigurationSection) && !(value instanceof Map))
+					return null;
+				
+				Map<String, Object> map = new LinkedHashMap<String, Object>();
+				Map<?, ?> values = value instanceof Map ? (Map<?, ?>) value : ((ConfigurationSection) value).getValues(false);
+				
+				for(Map.Entry<?, ?> entry : values.entrySet()) {
+					Object converted = element.convert(entry.getValue());
+					
+					if(converted != null)
+						map.put(String.valueOf(entry.getKey()), converted);
+				}
+				
+				return Collections.unmodifiableMap(map);
+			};
+		}
+		
+		if(isBindable(type))
+			return value -> value instanceof ConfigurationSection || value instanceof Map ? MAPPERS.get(type).bind(value) : null;
+		
+		return value -> type.isInstance(value) ? value : null;
+	}
+	
+	// Records and POJOs outside of the JDK can be bound from their own section
+	private static boolean isBindable(Class<?> type) {
+		if(type.isRecord())
+			return true;
+		
+		if(type.isPrimitive() || type.isInterface() || type.isArray() || Modifier.isAbstract(type.getModifiers()) || type.getName().startsWith("java."))
+			return false;
+		
+		try {
+			type.getDeclaredConstructor();
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	// Gets the generic argument of a List or Map, or Object if it's not declared
+	private static Class<?> getArgument(Type generic, int index) {
+		Type argument = getArgumentType(generic, index);
+		
+		if(argument instanceof Class)
+			return (Class<?>) argument;
+		
+		if(argument instanceof ParameterizedType)
+			return (Class<?>) ((ParameterizedType) argument).getRawType();
+		
+		return Object.class;
+	}
+	
+	private static Type getArgumentType(Type generic, int index) {
+		if(!(generic instanceof ParameterizedType))
+			return Object.class;
+		
+		Type[] arguments = ((ParameterizedType) generic).getActualTypeArguments();
+		
+		return index < arguments.length ? arguments[index] : Object.class;
+	}
+	
+	// Creates the converter of a whole number, which may also be written as a String. Decimals are only
+	// converted if they hold a whole number, and any value out of the range of the type is a mismatch.
+	private static Converter getWholeConverter(Class<?> type, long min, long max, Function<String, Object> parser, LongFunction<Object> function) {
+		return value -> {
+			if(value == null)
+				return null;
+			
+			try {
+				if(value instanceof String)
+					return parser.apply(((String) value).trim());
+				
+				if(value instanceof Number) {
+					long number = toLongExact((Number) value);
+					
+					if(number >= min && number <= max)
+						return function.apply(number);
+				}
+			} catch (NumberFormatException | ArithmeticException e) {
+				// Reported below as a mismatch
+			}
+			
+			throw mismatch(type, value);
+		};
+	}
+	
+	// Creates the converter of a decimal number, which may also be written as a String
+	private static Converter getDecimalConverter(Class<?> type, Function<String, Object> parser, Function<Number, Object> function) {
+		return value -> {
+			if(value == null)
+				return null;
+			
+			try {
+				if(value instanceof String)
+					return parser.apply(((String) value).trim());
+				
+				if(value instanceof Number)
+					return function.apply((Number) value);
+			} catch (NumberFormatException e) {
+				// Reported below as a mismatch
+			}
+			
+			throw mismatch(type, value);
+		};
+	}
+	
+	// Gets the exact value of a whole number, throwing if it has a fraction or does not fit within a long
+	private static long toLongExact(Number number) {
+		if(number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte)
+			return number.longValue();
+		
+		return new BigDecimal(number.toString()).longValueExact();
+	}
+	
+	private static IllegalArgumentException mismatch(Class<?> type, Object value) {
+		return new IllegalArgumentException("The value '" + value + "' cannot be converted to " + type.getSimpleName() + ".");
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object toEnum(Class<?> type, Object value) {
+		if(value == null)
+			return null;
+		
+		try {
+			return Enum.valueOf((Class) type, value.toString().trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_'));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+	
+	// Gets the value used for a record component that is not set. Primitives cannot be null, and Lists or Maps are empty.
+	private static Object getDefault(Class<?> type) {
+		if(type == List.class)
+			return Collections.emptyList();
+		
+		if(type == Map.class)
+			return Collections.emptyMap();
+		
+		if(!type.isPrimitive())
+			return null;
+		
+		if(type == boolean.class)
+			return false;
+		
+		if(type == char.class)
+			return '\0';
+		
+		return getConverter(type, type).convert(0);
+	}
+	
+	// Gets a lookup that can use the non-public members of the class
+	private static MethodHandles.Lookup getLookup(Class<?> type) throws IllegalAccessException {
+		return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Converts a raw value of the config into the type of a property.
+	 */
+	@FunctionalInterface
+	private interface Converter {
+		Object convert(Object value);
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Creates an object of a class from a section (or a Map of a section within a List).
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static abstract class Mapper {
+		abstract Object bind(Object source);
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Mapper of a record, which passes every component at once to the canonical constructor.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static final class RecordMapper extends Mapper {
+		private final MethodHandle constructor;
+		private final String[][] names;
+		private final Converter[] converters;
+		private final Object[] defaults;
+		
+		RecordMapper(Class<?> type) throws ReflectiveOperationException {
+			RecordComponent[] components = type.getRecordComponents();
+			Class<?>[] types = new Class<?>[components.length];
+			
+			names = new String[components.length][];
+			converters = new Converter[components.length];
+			defaults = new Object[components.length];
+			
+			for(int i = 0; i < components.length; i++) {
+				types[i] = components[i].getType();
+				names[i] = getNames(components[i].getName());
+				converters[i] = getConverter(types[i], components[i].getGenericType());
+				defaults[i] = getDefault(types[i]);
+			}
+			
+			constructor = getLookup(type).findConstructor(type, MethodType.methodType(void.class, types))
+					.asSpreader(Object[].class, components.length)
+					.asType(MethodType.methodType(Object.class, Object[].class));
+		}
+		
+		@Override
+		Object bind(Object source) {
+			Object[] arguments = new Object[converters.length];
+			
+			for(int i = 0; i < arguments.length; i++) {
+				Object value = converters[i].convert(find(source, names[i]));
+				arguments[i] = value != null ? value : defaults[i];
+			}
+			
+			try {
+				return constructor.invokeExact(arguments);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Mapper of a POJO, which creates the object with its no-argument constructor and then sets each value
+	 * that is found through the setter of the field, or the field itself if there is no setter. Fields that
+	 * are not found within the section keep the value given by the class.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static final class BeanMapper extends Mapper {
+		private final MethodHandle constructor;
+		private final MethodHandle[] setters;
+		private final String[][] names;
+		private final Converter[] converters;
+		
+		BeanMapper(Class<?> type) throws ReflectiveOperationException {
+			MethodHandles.Lookup lookup = getLookup(type);
+			List<MethodHandle> setters = new ArrayList<MethodHandle>();
+			List<String[]> names = new ArrayList<String[]>();
+			List<Converter> converters = new ArrayList<Converter>();
+			
+			constructor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+			
+			for(Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+				for(Field field : current.getDeclaredFields()) {
+					if(Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()) || field.isSynthetic())
+						continue;
+					
+					MethodHandle setter = getSetter(current, field);
+					
+					setters.add(setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+					names.add(getNames(field.getName()));
+					converters.add(getConverter(field.getType(), field.getGenericType()));
+				}
+			}
+			
+			this.setters = setters.toArray(new MethodHandle[0]);
+			this.names = names.toArray(new String[0][]);
+			this.converters = converters.toArray(new Converter[0]);
+		}
+		
+		// Gets the setter method of the field, or a handle that sets the field directly
+		private static MethodHandle getSetter(Class<?> type, Field field) throws IllegalAccessException {
+			MethodHandles.Lookup lookup = getLookup(type);
+			String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+			
+			try {
+				Method method = type.getDeclaredMethod(name, field.getType());
+				
+				if(!Modifier.isStatic(method.getModifiers()))
+					return lookup.unreflect(method).asType(MethodType.methodType(void.class, type, field.getType()));
+			} catch (NoSuchMethodException e) {
+				// Uses the field instead
+			}
+			
+			return lookup.unreflectSetter(field);
+		}
+		
+		@Override
+		Object bind(Object source) {
+			try {
+				Object object = constructor.invokeExact();
+				
+				for(int i = 0; i < setters.length; i++) {
+					Object value = converters[i].convert(find(source, names[i]));
+					
+					if(value != null)
+						setters[i].invokeExact(object, value);
+				}
+				
+				return object;
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,361 @@
+package com.coldfyre.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * Binary form of a parsed YML file, stored next to it as <i>&lt;name&gt;.yml.bin</i>. The cache holds the
+ * size, last modified time and SHA-256 hash of the YML file it was made from. If the size and time still
+ * match, then the tree is read straight from the cache without any YAML parsing. If only the time changed,
+ * then the hash is compared before the cache is used. Otherwise the YML file is parsed and the cache is
+ * written again.
+ * <br><br>
+ * Only the types produced by YAML parsing are stored (Strings, numbers, booleans, Lists and Maps). If the
+ * file holds any other value, such as a serialized Bukkit object, then no cache is written for it. The header,
+ * footer and the comments of each path are stored as well, as such saving a config loaded from the cache
+ * keeps the comments of the file.
+ * <br><br>
+ * Every length within the cache is checked against the bytes left, as such a damaged cache is never trusted
+ * to allocate memory. A cache that cannot be read is deleted and the YML file is parsed instead.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+final class ConfigCache {
+	
+	private static final int MAGIC = 0x43464342;
+	private static final byte VERSION = 2;
+	
+	// Deepest nesting of sections and Lists that is read, well above what YAML parsing allows
+	private static final int MAX_DEPTH = 256;
+	
+	// Tags of the stored values
+	private static final byte SECTION = 0, STRING = 1, INT = 2, LONG = 3, DOUBLE = 4, BOOLEAN = 5, LIST = 6, MAP = 7, BIG_INTEGER = 8;
+	
+	private ConfigCache() {}
+	
+	/**
+	 * Gets the cache file of the given YML file.
+	 * 
+	 * @param ymlFile - YML File
+	 * @return {@link File} of the cache
+	 */
+	static File getCacheFile(File ymlFile) { return new File(ymlFile.getParentFile(), ymlFile.getName() + ".bin"); }
+	
+	/**
+	 * Loads the given YML file, from the cache if it's still valid.
+	 * 
+	 * @param ymlFile - YML File to load
+	 * @return {@link YamlConfiguration} of the file, which is empty if the file does not exist
+	 * @throws IOException If the file cannot be read
+	 * @throws InvalidConfigurationException If the file is not valid YAML
+	 */
+	static YamlConfiguration load(File ymlFile) throws IOException, InvalidConfigurationException {
+		if(!ymlFile.exists())
+			return new YamlConfiguration();
+		
+		File cacheFile = getCacheFile(ymlFile);
+		
+		long size = ymlFile.length();
+		long modified = ymlFile.lastModified();
+		byte[] source = null;
+		byte[] hash = null;
+		
+		if(cacheFile.exists()) {
+			try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(cacheFile.toPath())))) {
+				if(in.readInt() == MAGIC && in.readByte() == VERSION && in.readLong() == size) {
+					long cachedModified = in.readLong();
+					byte[] cachedHash = new byte[32];
+					
+					in.readFully(cachedHash);
+					
+					if(cachedModified != modified) {
+						source = Files.readAllBytes(ymlFile.toPath());
+						hash = hash(source);
+					}
+					
+					if(source == null || MessageDigest.isEqual(hash, cachedHash)) {
+						YamlConfiguration config = new YamlConfiguration();
+						readSection(in, config, 0);
+						readComments(in, config);
+						
+						// The file was touched without changing, the cache is kept with the new time
+						if(source != null)
+							write(cacheFile, config, size, modified, hash);
+						
+						return config;
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				// The cache is unreadable or damaged, as such it's removed and written again from the YML file
+				cacheFile.delete();
+			}
+		}
+		
+		if(source == null)
+			source = Files.readAllBytes(ymlFile.toPath());
+		
+		YamlConfiguration config = new YamlConfiguration();
+		config.loadFromString(new String(source, StandardCharsets.UTF_8));
+		
+		write(cacheFile, config, size, modified, hash != null ? hash : hash(source));
+		return config;
+	}
+	
+	// Writes the cache, unless the config holds a value that cannot be stored. A cache that cannot be
+	// written is only logged, as the config was already loaded and is still used.
+	private static void write(File cacheFile, YamlConfiguration config, long size, long modified, byte[] hash) {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		
+		try {
+			try (DataOutputStream out = new DataOutputStream(bos)) {
+				out.writeInt(MAGIC);
+				out.writeByte(VERSION);
+				out.writeLong(size);
+				out.writeLong(modified);
+				out.write(hash);
+				
+				if(!writeMap(out, config.getValues(false)))
+					return;
+				
+				writeComments(out, config);
+			}
+			
+			Crypto.writeAtomically(cacheFile.toPath(), bos.toByteArray());
+		} catch (IOException e) {
+			FilesManager.LogException(e);
+		}
+	}
+	
+	private static byte[] hash(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static boolean writeMap(DataOutputStream out, Map<?, ?> map) throws IOException {
+		out.writeInt(map.size());
+		
+		for(Map.Entry<?, ?> entry : map.entrySet()) {
+			writeString(out, String.valueOf(entry.getKey()));
+			
+			if(!writeValue(out, entry.getValue()))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	// Writes the tag and the value, returning false if the type cannot be stored
+	private static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+		if(value instanceof ConfigurationSection) {
+			out.writeByte(SECTION);
+			return writeMap(out, ((ConfigurationSection) value).getValues(false));
+		}
+		
+		if(value instanceof String) {
+			out.writeByte(STRING);
+			writeString(out, (String) value);
+		} else if(value instanceof Integer) {
+			out.writeByte(INT);
+			out.writeInt((Integer) value);
+		} else if(value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if(value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if(value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if(value instanceof BigInteger) {
+			out.writeByte(BIG_INTEGER);
+			writeString(out, value.toString());
+		} else if(value instanceof List) {
+			List<?> list = (List<?>) value;
+			
+			out.writeByte(LIST);
+			out.writeInt(list.size());
+			
+			for(Object item : list)
+				if(!writeValue(out, item))
+					return false;
+		} else if(value instanceof Map) {
+			out.writeByte(MAP);
+			return writeMap(out, (Map<?, ?>) value);
+		} else
+			return false;
+		
+		return true;
+	}
+	
+	// Comments are stored after the values, being the header, the footer and then the paths that have any
+	private static void writeComments(DataOutputStream out, YamlConfiguration config) throws IOException {
+		List<String> paths = new ArrayList<String>();
+		
+		for(String path : config.getKeys(true))
+			if(!config.getComments(path).isEmpty() || !config.getInlineComments(path).isEmpty())
+				paths.add(path);
+		
+		writeLines(out, config.options().getHeader());
+		writeLines(out, config.options().getFooter());
+		out.writeInt(paths.size());
+		
+		for(String path : paths) {
+			writeString(out, path);
+			writeLines(out, config.getComments(path));
+			writeLines(out, config.getInlineComments(path));
+		}
+	}
+	
+	private static void readComments(DataInputStream in, YamlConfiguration config) throws IOException {
+		config.options().setHeader(readLines(in));
+		config.options().setFooter(readLines(in));
+		
+		int size = readLength(in);
+		
+		for(int i = 0; i < size; i++) {
+			String path = readString(in);
+			
+			config.setComments(path, readLines(in));
+			config.setInlineComments(path, readLines(in));
+		}
+	}
+	
+	// Lines of a comment are stored as their count and each line, where a null line (an empty line) has a length of -1
+	private static void writeLines(DataOutputStream out, List<String> lines) throws IOException {
+		out.writeInt(lines.size());
+		
+		for(String line : lines) {
+			if(line == null)
+				out.writeInt(-1);
+			else
+				writeString(out, line);
+		}
+	}
+	
+	private static List<String> readLines(DataInputStream in) throws IOException {
+		int size = readLength(in);
+		List<String> lines = new ArrayList<String>(size);
+		
+		for(int i = 0; i < size; i++) {
+			int length = in.readInt();
+			
+			lines.add(length == -1 ? null : readString(in, length));
+		}
+		
+		return lines;
+	}
+	
+	private static void readSection(DataInputStream in, ConfigurationSection section, int depth) throws IOException {
+		int size = readLength(in);
+		
+		checkDepth(depth);
+		
+		for(int i = 0; i < size; i++) {
+			String key = readString(in);
+			byte tag = in.readByte();
+			
+			if(tag == SECTION)
+				readSection(in, section.createSection(key), depth + 1);
+			else
+				section.set(key, readValue(in, tag, depth + 1));
+		}
+	}
+	
+	private static Object readValue(DataInputStream in, byte tag, int depth) throws IOException {
+		checkDepth(depth);
+		
+		switch (tag) {
+		case STRING:
+			return readString(in);
+		case INT:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case DOUBLE:
+			return in.readDouble();
+		case BOOLEAN:
+			return in.readBoolean();
+		case BIG_INTEGER:
+			return new BigInteger(readString(in));
+		case LIST:
+			int length = readLength(in);
+			List<Object> list = new ArrayList<Object>(length);
+			
+			for(int i = 0; i < length; i++)
+				list.add(readValue(in, in.readByte(), depth + 1));
+			
+			return list;
+		case MAP:
+		case SECTION:
+			int size = readLength(in);
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			
+			for(int i = 0; i < size; i++) {
+				String key = readString(in);
+				map.put(key, readValue(in, in.readByte(), depth + 1));
+			}
+			
+			return map;
+		default:
+			throw new IOException("Unknown tag " + tag + " within the config cache.");
+		}
+	}
+	
+	// Strings are stored as their length and UTF-8 bytes, as writeUTF is limited to 64KB
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static String readString(DataInputStream in) throws IOException { return readString(in, in.readInt()); }
+	
+	private static String readString(DataInputStream in, int length) throws IOException {
+		byte[] bytes = new byte[checkLength(in, length)];
+		
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	// Reads the length of a String or the count of entries. Every byte or entry takes at least one byte of
+	// the cache, as such a length above the bytes left (known exactly, as the cache is read from memory) can
+	// only come from a damaged cache.
+	private static int readLength(DataInputStream in) throws IOException { return checkLength(in, in.readInt()); }
+	
+	private static int checkLength(DataInputStream in, int length) throws IOException {
+		if(length < 0 || length > in.available())
+			throw new IOException("Invalid length " + length + " within the config cache.");
+		
+		return length;
+	}
+	
+	private static void checkDepth(int depth) throws IOException {
+		if(depth > MAX_DEPTH)
+			throw new IOException("The config cache is nested too deeply.");
+	}
+}
@@ -0,0 +1,151 @@
+package com.coldfyre.api;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Typed key of a value within an {@link AbstractConfig}. Keys should be created once (i.e. as
+ * <code>static final</code> fields) and registered to the config, which then resolves each key
+ * a single time whenever the config is loaded. Each key is given its own id when created, which is
+ * the slot of its value within every config it's registered to, as such getting a registered key is
+ * a single array read, and primitive keys are stored without boxing.
+ * <br><br>
+ * <pre>
+ * public static final ConfigKey&lt;String&gt; PREFIX = ConfigKey.ofString("chat.prefix", "[Chat]");
+ * public static final ConfigKey&lt;Integer&gt; RADIUS = ConfigKey.ofInt("chat.radius", 100);
+ * </pre>
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ * @param <T> Type of the value
+ */
+public final class ConfigKey<T> {
+	
+	/**
+	 * How the value of a key is stored within a snapshot.
+	 */
+	enum Kind {
+		OBJECT, INT, LONG, DOUBLE, BOOLEAN;
+	}
+	
+	// Next id given to a key
+	private static final AtomicInteger IDS = new AtomicInteger();
+	
+	private final int id = IDS.getAndIncrement();
+	private final String path;
+	private final Kind kind;
+	private final T defaultValue;
+	private final BiFunction<ConfigurationSection, String, T> reader;
+	
+	private ConfigKey(String path, Kind kind, T defaultValue, BiFunction<ConfigurationSection, String, T> reader) {
+		this.path = Objects.requireNonNull(path, "path");
+		this.kind = kind;
+		this.defaultValue = defaultValue;
+		this.reader = reader;
+	}
+	
+	/**
+	 * Creates a key of a String value.
+	 * 
+	 * @param path - Path of the value within the YML file
+	 * @param defaultValue - Value used if the path is not set
+	 * @return {@link ConfigKey}
+	 */
+	public static ConfigKey<String> ofString(@Nonnull String path, String defaultValue) {
+		return new ConfigKey<String>(path, Kind.OBJECT, defaultValue, (section, p) -> section.getString(p, defaultValue));
+	}
+	
+	/**
+	 * Creates a key of an Integer value, which is stored without boxing.
+	 * 
+	 * @param path - Path of the value within the YML file
+	 * @param defaultValue - Value used if the path is not set
+	 * @return {@link ConfigKey}
+	 */
+	public static ConfigKey<Integer> ofInt(@Nonnull String path, int defaultValue) {
+		return new ConfigKey<Integer>(path, Kind.INT, defaultValue, (section, p) -> section.getInt(p, defaultValue));
+	}
+	
+	/**
+	 * Creates a key of a Long value, which is stored without boxing.
+	 * 
+	 * @param path - Path of the value within the YML file
+	 * @param defaultValue - Value used if the path is not set
+	 * @return {@link ConfigKey}
+	 */
+	public static ConfigKey<Long> ofLong(@Nonnull String path, long defaultValue) {
+		return new ConfigKey<Long>(path, Kind.LONG, defaultValue, (section, p) -> section.getLong(p, defaultValue));
+	}
+	
+	/**
+	 * Creates a key of a Double value, which is stored without boxing.
+	 * 
+	 * @param path - Path of the value within the YML file
+	 * @param defaultValue - Value used if the path is not set
+	 * @return {@link ConfigKey}
+	 */
+	public static ConfigKey<Double> ofDouble(@Nonnull String path, double defaultValue) {
+		return new ConfigKey<Double>(path, Kind.DOUBLE, defaultValue, (section, p) -> section.getDouble(p, defaultValue));
+	}
+	
+	/**
+	 * Creates a key of a Boolean value, which is stored without boxing.
+	 * 
+	 * @param path - Path of the value within the YML file
+	 * @param defaultValue - Value used if the path is not set
+	 * @return {@link ConfigKey}
+	 */
+	public static ConfigKey<Boolean> ofBoolean(@Nonnull String path, boolean defaultValue) {
+		return new ConfigKey<Boolean>(path, Kind.BOOLEAN, defaultValue, (section, p) -> section.getBoolean(p, defaultValue));
+	}
+	
+	/**
+	 * Creates a key of a String List value. The returned list cannot be modified, and is
+	 * empty if the path is not set.
+	 * 
+	 * @param path - Path of the value within the YML file
+	 * @return {@link ConfigKey}
+	 */
+	public static ConfigKey<List<String>> ofStringList(@Nonnull String path) {
+		return new ConfigKey<List<String>>(path, Kind.OBJECT, Collections.emptyList(), (section, p) -> section.isList(p) ? List.copyOf(section.getStringList(p)) : Collections.emptyList());
+	}
+	
+	/**
+	 * Gets the path of this key within the YML file.
+	 * 
+	 * @return String - Path
+	 */
+	public String getPath() { return path; }
+	
+	/**
+	 * Gets the value used if the path is not set.
+	 * 
+	 * @return Default value
+	 */
+	public T getDefault() { return defaultValue; }
+	
+	/**
+	 * Reads the value of this key directly from the given section.
+	 * 
+	 * @param section - Section to read from
+	 * @return Value of the key
+	 */
+	public T read(@Nonnull ConfigurationSection section) { return reader.apply(section, path); }
+	
+	// Gets how the value is stored within a snapshot
+	Kind getKind() { return kind; }
+	
+	// Gets the slot of the value within a snapshot
+	int getId() { return id; }
+	
+	@Override
+	public String toString() { return "ConfigKey[" + path + "]"; }
+}
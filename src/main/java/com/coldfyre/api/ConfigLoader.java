@@ -0,0 +1,203 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * Loads many configs at once in parallel, used within <code>onEnable</code> instead of loading each
+ * config one after another. The configs should be created without loading their file (see
+ * {@link AbstractConfig#AbstractConfig(File, boolean)}), and are then each loaded through
+ * {@link AbstractConfig#reload()} on a {@link ForkJoinPool}. As such the startup time depends on the
+ * number of cores rather than the number of files.
+ * <br><br>
+ * <pre>
+ * ConfigLoader.Result result = ConfigLoader.loadAll(List.of(settings, messages, shops, kits));
+ * getLogger().info(result.toString());
+ * </pre>
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public final class ConfigLoader {
+	
+	private ConfigLoader() {}
+	
+	/**
+	 * Loads the given configs in parallel on the common {@link ForkJoinPool}, returning once
+	 * every config is loaded.
+	 * 
+	 * @param configs - Configs to load
+	 * @return {@link Result} with the time taken for each file
+	 */
+	public static Result loadAll(@Nonnull Collection<? extends AbstractConfig> configs) {
+		return loadAll(configs, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Loads the given configs in parallel on the given pool, returning once every config is loaded.
+	 * 
+	 * @param configs - Configs to load
+	 * @param pool - Pool to load the configs on
+	 * @return {@link Result} with the time taken for each file
+	 */
+	public static Result loadAll(@Nonnull Collection<? extends AbstractConfig> configs, @Nonnull ForkJoinPool pool) {
+		AbstractConfig[] array = configs.toArray(new AbstractConfig[0]);
+		long[] times = new long[array.length];
+		boolean[] failed = new boolean[array.length];
+		long start = System.nanoTime();
+		
+		if(array.length != 0)
+			pool.invoke(new LoadTask(array, times, failed, 0, array.length));
+		
+		return new Result(array, times, failed, System.nanoTime() - start);
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Task that loads a range of configs, splitting the range in half until a single
+	 * config remains.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static class LoadTask extends RecursiveAction {
+		
+		@java.io.Serial
+		private static final long serialVersionUID = 6710364471409235312L;
+		
+		private final AbstractConfig[] configs;
+		private final long[] times;
+		private final boolean[] failed;
+		private final int from, to;
+		
+		protected LoadTask(AbstractConfig[] configs, long[] times, boolean[] failed, int from, int to) {
+			this.configs = configs;
+			this.times = times;
+			this.failed = failed;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to - from > 1) {
+				int middle = (from + to) >>> 1;
+				
+				invokeAll(new LoadTask(configs, times, failed, from, middle), new LoadTask(configs, times, failed, middle, to));
+				return;
+			}
+			
+			long start = System.nanoTime();
+			
+			// A config that fails to load does not stop the others
+			try {
+				failed[from] = !configs[from].reload();
+			} catch (RuntimeException e) {
+				FilesManager.LogException(e);
+				failed[from] = true;
+			}
+			
+			times[from] = System.nanoTime() - start;
+		}
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Time taken to load each config of a {@link ConfigLoader#loadAll(Collection)}.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	public static final class Result {
+		private final Map<File, Long> times;
+		private final List<File> failed;
+		private final long total;
+		
+		private Result(AbstractConfig[] configs, long[] times, boolean[] failed, long total) {
+			Map<File, Long> map = new LinkedHashMap<File, Long>();
+			List<File> list = new ArrayList<File>();
+			
+			for(int i = 0; i < configs.length; i++) {
+				map.put(configs[i].getFile(), times[i]);
+				
+				if(failed[i])
+					list.add(configs[i].getFile());
+			}
+			
+			this.times = Collections.unmodifiableMap(map);
+			this.failed = Collections.unmodifiableList(list);
+			this.total = total;
+		}
+		
+		/**
+		 * Gets the time taken to load each file, in nanoseconds, in the order the configs were given.
+		 * 
+		 * @return Unmodifiable Map of the times by file
+		 */
+		public Map<File, Long> getTimes() { return times; }
+		
+		/**
+		 * Gets the files of the configs that failed to load.
+		 * 
+		 * @return Unmodifiable List of files
+		 */
+		public List<File> getFailed() { return failed; }
+		
+		/**
+		 * Gets the time taken to load every config, in the given unit.
+		 * 
+		 * @param unit - Unit of the time
+		 * @return LONG - Total time
+		 */
+		public long getTotalTime(TimeUnit unit) { return unit.convert(total, TimeUnit.NANOSECONDS); }
+		
+		/**
+		 * Gets the sum of the times of each config, in the given unit. Compared to {@link #getTotalTime(TimeUnit)},
+		 * this shows how much time was saved by loading in parallel.
+		 * 
+		 * @param unit - Unit of the time
+		 * @return LONG - Sum of the times
+		 */
+		public long getSequentialTime(TimeUnit unit) {
+			long sum = 0;
+			
+			for(long time : times.values())
+				sum += time;
+			
+			return unit.convert(sum, TimeUnit.NANOSECONDS);
+		}
+		
+		/**
+		 * Lists the time of each file, the total time and any failed files, suited for the log.
+		 */
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder("Loaded " + times.size() + " configs in " + getTotalTime(TimeUnit.MILLISECONDS) + "ms (" + getSequentialTime(TimeUnit.MILLISECONDS) + "ms sequential)");
+			
+			for(Map.Entry<File, Long> entry : times.entrySet())
+				builder.append("\n  ").append(entry.getKey().getName()).append(": ").append(TimeUnit.NANOSECONDS.toMillis(entry.getValue())).append("ms");
+			
+			if(!failed.isEmpty())
+				builder.append("\n  Failed: ").append(failed);
+			
+			return builder.toString();
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package com.coldfyre.api;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * Single {@link WatchService} shared by every watched {@link AbstractConfig}. A daemon thread waits for
+ * changes within the folders of the watched files and tells the matching configs, which then schedule
+ * their own (debounced) reload. Folders are only registered while at least one of their files is watched.
+ * The service and its thread are closed by {@link AbstractConfig#shutdown()}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+final class ConfigWatcher {
+	
+	private static WatchService service;
+	private static Thread thread;
+	private static final Map<Path, WatchKey> FOLDERS = new HashMap<Path, WatchKey>();
+	private static final Map<Path, Set<AbstractConfig>> CONFIGS = new ConcurrentHashMap<Path, Set<AbstractConfig>>();
+	
+	private ConfigWatcher() {}
+	
+	/**
+	 * Starts watching the file of the given config.
+	 * 
+	 * @param config - Config to notify
+	 * @param file - Absolute path of the file
+	 * @return True - If the file is being watched
+	 */
+	static synchronized boolean watch(AbstractConfig config, Path file) {
+		Path folder = file.getParent();
+		
+		try {
+			if(service == null)
+				start();
+			
+			if(!FOLDERS.containsKey(folder))
+				FOLDERS.put(folder, folder.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+		} catch (IOException e) {
+			FilesManager.LogException(e);
+			return false;
+		}
+		
+		CONFIGS.computeIfAbsent(file, path -> ConcurrentHashMap.newKeySet()).add(config);
+		return true;
+	}
+	
+	/**
+	 * Stops watching the file of the given config. The folder is no longer watched once none of
+	 * its files are.
+	 * 
+	 * @param config - Config to remove
+	 * @param file - Absolute path of the file
+	 */
+	static synchronized void unwatch(AbstractConfig config, Path file) {
+		Set<AbstractConfig> configs = CONFIGS.get(file);
+		
+		if(configs == null || !configs.remove(config))
+			return;
+		
+		if(configs.isEmpty())
+			CONFIGS.remove(file);
+		
+		Path folder = file.getParent();
+		
+		for(Path path : CONFIGS.keySet())
+			if(folder.equals(path.getParent()))
+				return;
+		
+		WatchKey key = FOLDERS.remove(folder);
+		
+		if(key != null)
+			key.cancel();
+	}
+	
+	/**
+	 * Stops watching every file, closing the service and waiting for its thread to end. A later
+	 * call to {@link #watch(AbstractConfig, Path)} starts them again.
+	 */
+	static synchronized void close() {
+		if(service == null)
+			return;
+		
+		try {
+			service.close();
+			thread.join(1000);
+		} catch (IOException e) {
+			FilesManager.LogException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+		service = null;
+		thread = null;
+		FOLDERS.clear();
+		CONFIGS.clear();
+	}
+	
+	/**
+	 * Checks if the service and its thread are running.
+	 * 
+	 * @return True - If files can be watched without starting them again
+	 */
+	static synchronized boolean isRunning() { return thread != null && thread.isAlive(); }
+	
+	// Creates the service and the thread that waits for changes. The thread is given its own service,
+	// as such a thread that is still ending after close never takes the events of a new service.
+	private static void start() throws IOException {
+		WatchService watchService = FileSystems.getDefault().newWatchService();
+		
+		service = watchService;
+		thread = new Thread(() -> run(watchService), "CFCore-ConfigWatcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	private static void run(WatchService service) {
+		try {
+			while(true) {
+				WatchKey key = service.take();
+				Path folder = (Path) key.watchable();
+				
+				for(WatchEvent<?> event : key.pollEvents()) {
+					// Events were lost, as such any file of the folder may have changed
+					if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						for(Map.Entry<Path, Set<AbstractConfig>> entry : CONFIGS.entrySet())
+							if(folder.equals(entry.getKey().getParent()))
+								entry.getValue().forEach(AbstractConfig::scheduleReload);
+						
+						continue;
+					}
+					
+					Set<AbstractConfig> configs = CONFIGS.get(folder.resolve((Path) event.context()));
+					
+					if(configs != null)
+						for(AbstractConfig config : configs)
+							config.scheduleReload();
+				}
+				
+				key.reset();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// The service was closed
+		}
+	}
+}
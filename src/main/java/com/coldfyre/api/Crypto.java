@@ -4,17 +4,38 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.security.InvalidKeyException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
 import java.security.Key;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Random;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.annotation.Nonnull;
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.KeyGenerator;
-import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import com.coldfyre.api.manager.FilesManager;
@@ -35,13 +56,77 @@ public class Crypto {
 	private final String padding;
 	private final Key key;
 	
+	private final boolean counterNonces;
+	
+	// Cipher objects are not thread-safe, so each thread keeps its own for reuse. They are shared by every
+	// Crypto object of the same transformation, as the key is given each time the cipher is initialized.
+	private static final ThreadLocal<Map<String, Cipher>> CIPHERS = ThreadLocal.withInitial(HashMap::new);
+	
 	// Used in the creation of a Random Key.
 	private static final char[] CHARACTERS = "AaBbCcDdEeFfGgHhIiJjKkLlMmNnOoPpQqRrSsTtUuVvWwXxYyZz _1234567890~`!@#$%^&*()-+*\\/?.>,<[]{}|'\"".toCharArray();
 	
+	private static final ThreadLocal<byte[]> IV_BUFFER = ThreadLocal.withInitial(() -> new byte[16]);
+	
 	protected static final String ALG = "AES";
 	protected static final String TRA = "CBC";
 	protected static final String PAD = "PKCS5Padding";
 	
+	/**
+	 * Transformation for the authenticated AES-GCM mode. Each message is prefixed with a random
+	 * 12-byte nonce and ends with a 16-byte authentication tag that is verified on decryption.
+	 */
+	public static final String GCM = "GCM";
+	
+	/**
+	 * Padding used by stream-like transformations ({@link #GCM}, CTR). This is used as the default
+	 * padding for those transformations if no padding is provided.
+	 */
+	public static final String NO_PAD = "NoPadding";
+	
+	protected static final int GCM_NONCE_LENGTH = 12;
+	protected static final int GCM_TAG_LENGTH = 128;
+	
+	/**
+	 * Default size (1 MiB) of each independently encrypted segment used by {@link #encryptSegmented(File, File)}.
+	 */
+	public static final int SEGMENT_SIZE = 1 << 20;
+	
+	/**
+	 * Largest segment size (64 MiB) accepted by {@link #encryptSegmented(File, File, int)}. Files whose header
+	 * claims a larger segment are rejected before any segment buffer is allocated.
+	 */
+	public static final int MAX_SEGMENT_SIZE = 64 << 20;
+	
+	// Segmented file header: Magic (4) | Segment Size (4) | Data Length (8) | Nonce Prefix (8)
+	private static final int SEGMENT_MAGIC = 0x43465347;
+	private static final int SEGMENT_HEADER = 24;
+	private static final int SEGMENT_TAG = GCM_TAG_LENGTH / 8;
+	
+	// Number of bytes mapped at once when encrypting a file in-place
+	private static final long MAP_WINDOW = 64L << 20;
+	
+	// Number of bytes read at once when decrypting a mapped file in-place
+	private static final int UNMAP_WINDOW = 1 << 20;
+	
+	// Mapped file trailer: IV (16) | Magic (4)
+	private static final int MAPPED_MAGIC = 0x43464d50;
+	
+	/**
+	 * Default number of PBKDF2 iterations used when deriving a key from a password.
+	 */
+	public static final int PBKDF2_ITERATIONS = 600_000;
+	
+	// Keys derived from passwords, so each password/salt pair is only derived once.
+	private static final int KEY_CACHE_SIZE = 64;
+	private static final Map<String, Key> DERIVED_KEYS = Collections.synchronizedMap(new LinkedHashMap<String, Key>(16, 0.75f, true) {
+		
+		@java.io.Serial
+		private static final long serialVersionUID = 4401857364187027461L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Key> eldest) { return size() > KEY_CACHE_SIZE; }
+	});
+	
 	/**
 	 * Intakes a String value of 16-bit data that is then turned into a Key object used for Crypto. The
 	 * other string objects determine how the process is handled during the encryption and decryption process.
@@ -95,10 +180,119 @@ public class Crypto {
 	 * @param padding - Padding used for transformations and Algorithms
 	 */
 	public Crypto(@Nonnull final Key key, final String algorithm, final String transformation, final String padding) {
+		this(key, algorithm, transformation, padding, false);
+	}
+	
+	// Sets every field, as such a Crypto object is safely shared between threads once created
+	private Crypto(final Key key, final String algorithm, final String transformation, final String padding, final boolean counterNonces) {
 		this.key = key;
 		this.algorithm = (algorithm != null ? algorithm : ALG);
 		this.transformation = (transformation != null ? transformation : TRA);
-		this.padding = (padding != null ? padding : PAD);
+		this.padding = (padding != null ? padding : isStreamMode() ? NO_PAD : PAD);
+		this.counterNonces = counterNonces;
+	}
+	
+	/**
+	 * Creates a Crypto object whose key is derived from the given password using PBKDF2, allowing
+	 * passwords of any length. The derived key is cached, so creating several Crypto objects
+	 * with the same password and salt only derives the key once. The default Algorithm, Transformation
+	 * and Padding are used.
+	 * 
+	 * @see {@link #deriveKey(String, byte[], int)}
+	 * @param password - Password to derive the key from
+	 * @param salt - Salt of the password, should be unique and stored alongside the data
+	 * @param iterations - Number of PBKDF2 iterations (i.e. {@link #PBKDF2_ITERATIONS})
+	 */
+	public Crypto(@Nonnull final String password, @Nonnull final byte[] salt, final int iterations) {
+		this(password, salt, iterations, null, null);
+	}
+	
+	/**
+	 * Creates a Crypto object whose key is derived from the given password using PBKDF2, allowing
+	 * passwords of any length. The derived key is cached, so creating several Crypto objects
+	 * with the same password and salt only derives the key once.
+	 * 
+	 * @see {@link #deriveKey(String, byte[], int)}
+	 * @param password - Password to derive the key from
+	 * @param salt - Salt of the password, should be unique and stored alongside the data
+	 * @param iterations - Number of PBKDF2 iterations (i.e. {@link #PBKDF2_ITERATIONS})
+	 * @param transformation - Block handling for Algorithm
+	 * @param padding - Padding used for transformations and Algorithms
+	 */
+	public Crypto(@Nonnull final String password, @Nonnull final byte[] salt, final int iterations, final String transformation, final String padding) {
+		this(deriveKey(password, salt, iterations), ALG, transformation, padding);
+	}
+	
+	/**
+	 * Creates a new Crypto object that uses the authenticated AES-GCM mode. Every encrypted message
+	 * is framed as <code>nonce | ciphertext | tag</code>, and any data that has been altered will fail
+	 * to decrypt.
+	 * 
+	 * @param key - Key used for encoding and decoding.
+	 * @return Crypto - AES/GCM/NoPadding Crypto object
+	 */
+	public static Crypto gcm(@Nonnull final Key key) { return gcm(key, false); }
+	
+	/**
+	 * Creates a new Crypto object that uses the authenticated AES-GCM mode. If counter nonces are used,
+	 * then each nonce is a random per-thread prefix followed by a counter (see {@link NonceGenerator#nextCounterNonce(byte[], int)})
+	 * rather than 12 random bytes, which is cheaper for a large number of small messages.
+	 * 
+	 * @param key - Key used for encoding and decoding.
+	 * @param counterNonces - TRUE: Counter based nonces | FALSE: Random nonces
+	 * @return Crypto - AES/GCM/NoPadding Crypto object
+	 */
+	public static Crypto gcm(@Nonnull final Key key, boolean counterNonces) { return new Crypto(key, ALG, GCM, NO_PAD, counterNonces); }
+	
+	/**
+	 * Checks if this Crypto object uses an authenticated transformation (i.e. {@link #GCM}), meaning
+	 * that any tampered data is rejected during decryption.
+	 * 
+	 * @return True - If the transformation is authenticated
+	 */
+	public boolean isAuthenticated() { return transformation.equalsIgnoreCase(GCM); }
+	
+	// Checks if the transformation produces output of the same length as the input
+	private boolean isStreamMode() { return isAuthenticated() || transformation.equalsIgnoreCase("CTR"); }
+	
+	// Gets the smallest length of encrypted data, being the IV followed by the tag of GCM. Shorter
+	// GCM data makes the provider throw an unchecked exception instead of failing the tag check
+	private int getMinimumLength(int ivLength) { return ivLength + (isAuthenticated() ? GCM_TAG_LENGTH / 8 : 0); }
+	
+	// Gets this thread's Cipher for the stored transformation, creating it on first use
+	private Cipher getCipher() throws GeneralSecurityException {
+		String name = algorithm + "/" + transformation + "/" + padding;
+		Map<String, Cipher> ciphers = CIPHERS.get();
+		Cipher cipher = ciphers.get(name);
+		
+		if(cipher == null) {
+			cipher = Cipher.getInstance(name);
+			ciphers.put(name, cipher);
+		}
+		
+		return cipher;
+	}
+	
+	// Gets the number of bytes of the IV (or Nonce) that prefix each encrypted message.
+	// ECB does not use an IV, GCM uses a 12-byte Nonce, and all other modes use the block size.
+	private int getIVLength(Cipher cipher) {
+		if(transformation.equalsIgnoreCase("ECB"))
+			return 0;
+		
+		return isAuthenticated() ? GCM_NONCE_LENGTH : cipher.getBlockSize();
+	}
+	
+	// Writes a new IV (or Nonce) into the array
+	private void nextIV(byte[] iv, int offset, int length) {
+		if(counterNonces && isAuthenticated())
+			NonceGenerator.nextCounterNonce(iv, offset);
+		else
+			NonceGenerator.nextBytes(iv, offset, length);
+	}
+	
+	// Creates the parameters for the cipher from the IV found at the given offset
+	private AlgorithmParameterSpec getParameters(byte[] iv, int offset, int length) {
+		return isAuthenticated() ? new GCMParameterSpec(GCM_TAG_LENGTH, iv, offset, length) : new IvParameterSpec(iv, offset, length);
 	}
 	
 	/**
@@ -112,10 +306,9 @@ public class Crypto {
 	@Deprecated
 	public static Key generateRandomKey() {
 		StringBuilder builder = new StringBuilder();
-		Random random = new Random();
 		
 		for(int i = 0; i < 32; i++)
-			builder.append(CHARACTERS[random.nextInt(93)]);
+			builder.append(CHARACTERS[NonceGenerator.nextInt(93)]);
 		
 		return new SecretKeySpec(builder.toString().getBytes(), ALG);
 	}
@@ -129,17 +322,117 @@ public class Crypto {
 	 */
 	public static Key getRandomKey() throws NoSuchAlgorithmException { return KeyGenerator.getInstance(ALG).generateKey(); }
 	
+	/**
+	 * Generates a random 16-byte salt to be used with {@link #deriveKey(String, byte[], int)}.
+	 * 
+	 * @return Byte array of the salt
+	 */
+	public static byte[] generateSalt() {
+		byte[] salt = new byte[16];
+		NonceGenerator.nextBytes(salt);
+		
+		return salt;
+	}
+	
+	/**
+	 * Derives a 256-bit AES key from the given password and salt.
+	 * 
+	 * @see {@link #deriveKey(String, byte[], int, int)}
+	 * @param password - Password to derive the key from
+	 * @param salt - Salt of the password
+	 * @param iterations - Number of PBKDF2 iterations
+	 * @return Key - Derived AES key
+	 */
+	public static Key deriveKey(@Nonnull String password, @Nonnull byte[] salt, int iterations) { return deriveKey(password, salt, iterations, 256); }
+	
+	/**
+	 * Derives an AES key from the given password and salt using PBKDF2 (HMAC-SHA256). The derivation
+	 * is slow by design, so derived keys are kept in a bounded cache and deriving the same password,
+	 * salt, iterations and length again returns the cached key. The cache is indexed by a hash of the
+	 * salted password, never the password itself.
+	 * 
+	 * @param password - Password to derive the key from
+	 * @param salt - Salt of the password
+	 * @param iterations - Number of PBKDF2 iterations
+	 * @param keyLength - Length of the key in bits (128, 192 or 256)
+	 * @return Key - Derived AES key
+	 * @throws IllegalArgumentException If the iterations are not positive, the key length is not an AES key length or the salt is empty
+	 * @throws IllegalStateException If PBKDF2 is not available within this Java installation
+	 */
+	public static Key deriveKey(@Nonnull String password, @Nonnull byte[] salt, int iterations, int keyLength) {
+		if(iterations <= 0)
+			throw new IllegalArgumentException("PBKDF2 iterations must be positive, got " + iterations + ".");
+		
+		if(keyLength != 128 && keyLength != 192 && keyLength != 256)
+			throw new IllegalArgumentException("Key length must be 128, 192 or 256 bits, got " + keyLength + ".");
+		
+		if(salt.length == 0)
+			throw new IllegalArgumentException("Salt must not be empty.");
+		
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			
+			digest.update(ByteBuffer.allocate(4).putInt(salt.length).array());
+			digest.update(salt);
+			digest.update(password.getBytes(StandardCharsets.UTF_8));
+			
+			String index = Base64.getEncoder().encodeToString(digest.digest()) + ":" + iterations + ":" + keyLength;
+			Key key = DERIVED_KEYS.get(index);
+			
+			if(key == null) {
+				PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, keyLength);
+				
+				try {
+					key = new SecretKeySpec(SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded(), ALG);
+				} finally {
+					spec.clearPassword();
+				}
+				
+				DERIVED_KEYS.put(index, key);
+			}
+			
+			return key;
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("PBKDF2 is not available within this Java installation.", e);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalArgumentException("The key could not be derived from the given parameters.", e);
+		}
+	}
+	
 	// Performs the action of encrypting and decrypting
 	// mode - Cipher mode type
 	// key - key used for cipher action
 	// data - data that will be ran through the cipher process
+	// Modes that use an IV have a random IV written in front of the encrypted data, which
+	// is then read back during decryption. For GCM, a failed tag check returns an empty array.
 	private byte[] doCrypto(int mode, Key key, byte[] data) {
 		try {
-			Cipher cipher = Cipher.getInstance(algorithm + "/" + transformation + "/" + padding);
-			cipher.init(mode, key);
+			Cipher cipher = getCipher();
+			int ivLength = getIVLength(cipher);
 			
-			return cipher.doFinal(data);
-		} catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException e) {
+			if(ivLength == 0) {
+				cipher.init(mode, key);
+				return cipher.doFinal(data);
+			}
+			
+			if(mode == Cipher.DECRYPT_MODE) {
+				if(data.length < getMinimumLength(ivLength))
+					return new byte[0];
+				
+				cipher.init(mode, key, getParameters(data, 0, ivLength));
+				return cipher.doFinal(data, ivLength, data.length - ivLength);
+			}
+			
+			byte[] iv = new byte[ivLength];
+			nextIV(iv, 0, ivLength);
+			cipher.init(mode, key, getParameters(iv, 0, ivLength));
+			
+			byte[] output = new byte[ivLength + cipher.getOutputSize(data.length)];
+			System.arraycopy(iv, 0, output, 0, ivLength);
+			
+			int length = ivLength + cipher.doFinal(data, 0, data.length, output, ivLength);
+			return length == output.length ? output : Arrays.copyOf(output, length);
+		} catch (GeneralSecurityException e) {
 			return new byte[0];
 		}
 	}
@@ -327,4 +620,600 @@ public class Crypto {
 			FilesManager.LogException(e);
 		}
 	}
+	
+	/**
+	 * Encrypts each of the given records into a single {@link Batch}. This is meant for a large number of
+	 * small records (tokens, player data, etc.) where the cost of each separate {@link #encrypt(byte[])} call
+	 * is mostly setting up the cipher. The cipher is obtained once for the batch, all IVs are generated in a
+	 * single call and the encrypted records are written into one contiguous array. Each record is encrypted the
+	 * same as {@link #encrypt(byte[])}, so a record taken from the batch can be decrypted on its own.
+	 * 
+	 * @param records - Records to encrypt
+	 * @return {@link Batch} - Encrypted records, or null if the records could not be encrypted
+	 */
+	public Batch encryptAll(List<byte[]> records) {
+		try {
+			Cipher cipher = getCipher();
+			int ivLength = getIVLength(cipher);
+			int[] offsets = new int[records.size() + 1];
+			long total = 0;
+			
+			for(byte[] record : records)
+				total += getEncryptedSize(record.length);
+			
+			if(total > Integer.MAX_VALUE - 8)
+				throw new IllegalArgumentException("The records are too large to be encrypted in a single batch.");
+			
+			byte[] data = new byte[(int) total];
+			byte[] ivs = new byte[records.size() * ivLength];
+			
+			if(counterNonces) {
+				for(int i = 0; i < records.size(); i++)
+					nextIV(ivs, i * ivLength, ivLength);
+			} else
+				NonceGenerator.nextBytes(ivs);
+			
+			if(ivLength == 0)
+				cipher.init(Cipher.ENCRYPT_MODE, key);
+			
+			for(int i = 0; i < records.size(); i++) {
+				byte[] record = records.get(i);
+				int position = offsets[i];
+				
+				if(ivLength != 0) {
+					cipher.init(Cipher.ENCRYPT_MODE, key, getParameters(ivs, i * ivLength, ivLength));
+					System.arraycopy(ivs, i * ivLength, data, position, ivLength);
+				}
+				
+				offsets[i + 1] = position + ivLength + cipher.doFinal(record, 0, record.length, data, position + ivLength);
+			}
+			
+			return new Batch(offsets[records.size()] == data.length ? data : Arrays.copyOf(data, offsets[records.size()]), offsets);
+		} catch (GeneralSecurityException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Decrypts each record of the given {@link Batch}. Any record that fails to decrypt is returned as an
+	 * empty array, the same as {@link #decrypt(byte[])}.
+	 * 
+	 * @param batch - Batch of encrypted records
+	 * @return {@link List} of decrypted records, in the same order as the batch
+	 */
+	public List<byte[]> decryptAll(Batch batch) {
+		List<byte[]> records = new ArrayList<byte[]>(batch.size());
+		
+		try {
+			Cipher cipher = getCipher();
+			int ivLength = getIVLength(cipher);
+			
+			if(ivLength == 0)
+				cipher.init(Cipher.DECRYPT_MODE, key);
+			
+			for(int i = 0; i < batch.size(); i++) {
+				int position = batch.offsets[i];
+				int length = batch.offsets[i + 1] - position;
+				
+				try {
+					if(length < getMinimumLength(ivLength)) {
+						records.add(new byte[0]);
+						continue;
+					}
+					
+					if(ivLength != 0)
+						cipher.init(Cipher.DECRYPT_MODE, key, getParameters(batch.data, position, ivLength));
+					
+					records.add(cipher.doFinal(batch.data, position + ivLength, length - ivLength));
+				} catch (GeneralSecurityException e) {
+					records.add(new byte[0]);
+				}
+			}
+		} catch (GeneralSecurityException e) {
+			while(records.size() < batch.size())
+				records.add(new byte[0]);
+		}
+		
+		return records;
+	}
+	
+	/**
+	 * Gets the number of bytes of the IV (or Nonce) written in front of each encrypted message. When
+	 * encrypting a {@link ByteBuffer} in-place, this many bytes must be free in front of the data.
+	 * 
+	 * @return INT - Length of the IV, or -1 if the transformation is not available
+	 */
+	public int getIVLength() {
+		try {
+			return getIVLength(getCipher());
+		} catch (GeneralSecurityException e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Gets the number of bytes needed to hold the encrypted form of the given number of bytes,
+	 * including the IV and any padding or authentication tag.
+	 * 
+	 * @param length - Number of bytes to encrypt
+	 * @return INT - Size of the encrypted data, or -1 if the transformation is not available
+	 */
+	public int getEncryptedSize(int length) {
+		try {
+			Cipher cipher = getCipher();
+			int ivLength = getIVLength(cipher);
+			int blockSize = cipher.getBlockSize();
+			
+			if(isAuthenticated())
+				return ivLength + length + GCM_TAG_LENGTH / 8;
+			else if(blockSize == 0 || padding.equalsIgnoreCase(NO_PAD))
+				return ivLength + length;
+			
+			return ivLength + (length / blockSize + 1) * blockSize;
+		} catch (GeneralSecurityException e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Gets the number of bytes needed to hold the decrypted form of the given number of encrypted
+	 * bytes. For padded transformations this is an upper bound, as the padding is only known once
+	 * the data is decrypted.
+	 * 
+	 * @param length - Number of bytes to decrypt
+	 * @return INT - Size of the decrypted data, or -1 if the transformation is not available
+	 */
+	public int getDecryptedSize(int length) {
+		int ivLength = getIVLength();
+		
+		if(ivLength < 0)
+			return -1;
+		
+		return Math.max(0, length - ivLength - (isAuthenticated() ? GCM_TAG_LENGTH / 8 : 0));
+	}
+	
+	/**
+	 * Encrypts the remaining bytes of the source buffer into the destination buffer. Both buffers may
+	 * be direct, and no arrays are allocated for the data itself, making this suitable for high-rate
+	 * callers (e.g. network payloads). The destination must have at least {@link #getEncryptedSize(int)}
+	 * bytes remaining. To encrypt in-place, give two views of the same memory (i.e. {@link ByteBuffer#duplicate()})
+	 * with the destination starting {@link #getIVLength()} bytes before the source. If this fails, the
+	 * positions of both buffers are left unchanged.
+	 * 
+	 * @param src - Data to encrypt
+	 * @param dst - Buffer to write the encrypted data to
+	 * @return INT - Number of bytes written, or -1 if the data could not be encrypted
+	 */
+	public int encrypt(ByteBuffer src, ByteBuffer dst) { return doCrypto(Cipher.ENCRYPT_MODE, src, dst); }
+	
+	/**
+	 * Decrypts the remaining bytes of the source buffer into the destination buffer. Both buffers may
+	 * be direct and may share the same memory (decrypting in-place), in which case the decrypted data
+	 * starts where the IV was. The destination must have at least {@link #getDecryptedSize(int)} bytes
+	 * remaining. If this fails (including a failed GCM tag check), the positions of both buffers are left unchanged.
+	 * 
+	 * @param src - Data to decrypt
+	 * @param dst - Buffer to write the decrypted data to
+	 * @return INT - Number of bytes written, or -1 if the data could not be decrypted
+	 */
+	public int decrypt(ByteBuffer src, ByteBuffer dst) { return doCrypto(Cipher.DECRYPT_MODE, src, dst); }
+	
+	// Same as doCrypto(int, Key, byte[]), but runs on the buffers directly.
+	private int doCrypto(int mode, ByteBuffer src, ByteBuffer dst) {
+		int srcPosition = src.position();
+		int dstPosition = dst.position();
+		
+		try {
+			Cipher cipher = getCipher();
+			int ivLength = getIVLength(cipher);
+			
+			if(ivLength == 0) {
+				cipher.init(mode, key);
+				return cipher.doFinal(src, dst);
+			}
+			
+			byte[] iv = IV_BUFFER.get();
+			
+			if(mode == Cipher.DECRYPT_MODE) {
+				if(src.remaining() < getMinimumLength(ivLength))
+					return -1;
+				
+				src.get(iv, 0, ivLength);
+				cipher.init(mode, key, getParameters(iv, 0, ivLength));
+				return cipher.doFinal(src, dst);
+			}
+			
+			if(dst.remaining() < getEncryptedSize(src.remaining()))
+				return -1;
+			
+			nextIV(iv, 0, ivLength);
+			cipher.init(mode, key, getParameters(iv, 0, ivLength));
+			dst.put(iv, 0, ivLength);
+			
+			return ivLength + cipher.doFinal(src, dst);
+		} catch (GeneralSecurityException e) {
+			src.position(srcPosition);
+			dst.position(dstPosition);
+			
+			return -1;
+		}
+	}
+	
+	/**
+	 * Encrypts the given file in-place using AES-CTR through memory-mapped windows of the file. The
+	 * data is transformed within the page cache without being copied into arrays on the heap, and the
+	 * encrypted data has the same length as the original data, followed by the 16-byte IV and a 4-byte marker. This
+	 * ignores the transformation of this object and only uses the key. Note that CTR is not authenticated,
+	 * and that the file is left partially encrypted if the process is interrupted.
+	 * 
+	 * @param file - File to encrypt
+	 * @return True - If the file was encrypted
+	 */
+	public boolean encryptMapped(File file) { return doMapped(Cipher.ENCRYPT_MODE, file); }
+	
+	/**
+	 * Decrypts a file encrypted by {@link #encryptMapped(File)} in-place, removing the IV and marker from the
+	 * end of the file. A file that does not end with the marker (i.e. a plain or already decrypted file) is
+	 * left untouched and this returns false. A mapping cannot be released on demand, and some systems (i.e. Windows)
+	 * refuse to shorten a file that is still mapped, as such the data is decrypted through a reused direct buffer
+	 * rather than mapped windows.
+	 * 
+	 * @param file - File to decrypt
+	 * @return True - If the file was decrypted
+	 */
+	public boolean decryptMapped(File file) { return doMapped(Cipher.DECRYPT_MODE, file); }
+	
+	// Runs AES-CTR over the file, through mapped windows when encrypting and a direct buffer when decrypting. The IV
+	// and marker are written to the end of the file before encrypting and are removed after decrypting.
+	private boolean doMapped(int mode, File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			Cipher cipher = Cipher.getInstance(algorithm + "/CTR/" + NO_PAD);
+			ByteBuffer trailer = ByteBuffer.allocate(cipher.getBlockSize() + 4);
+			long length = channel.size();
+			
+			if(mode == Cipher.ENCRYPT_MODE) {
+				NonceGenerator.nextBytes(trailer.array(), 0, cipher.getBlockSize());
+				trailer.putInt(cipher.getBlockSize(), MAPPED_MAGIC);
+				writeFully(channel, trailer, length);
+			} else {
+				length -= trailer.capacity();
+				
+				if(length >= 0)
+					readFully(channel, trailer, length);
+				
+				if(length < 0 || trailer.getInt(cipher.getBlockSize()) != MAPPED_MAGIC)
+					throw new IOException("The file " + file.getName() + " is not a mapped encrypted file.");
+			}
+			
+			cipher.init(mode, key, new IvParameterSpec(trailer.array(), 0, cipher.getBlockSize()));
+			
+			if(mode == Cipher.ENCRYPT_MODE) {
+				for(long position = 0; position < length; position += MAP_WINDOW) {
+					MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(MAP_WINDOW, length - position));
+					
+					cipher.update(window.duplicate(), window);
+					window.force();
+				}
+				
+				cipher.doFinal();
+				return true;
+			}
+			
+			ByteBuffer window = ByteBuffer.allocateDirect((int) Math.max(1, Math.min(UNMAP_WINDOW, length)));
+			
+			for(long position = 0; position < length; position += window.capacity()) {
+				window.clear().limit((int) Math.min(window.capacity(), length - position));
+				readFully(channel, window, position);
+				window.flip();
+				
+				cipher.update(window.duplicate(), window);
+				window.flip();
+				writeFully(channel, window, position);
+			}
+			
+			cipher.doFinal();
+			channel.force(false);
+			
+			// Nothing of the file is mapped, as such the trailer can be removed on every system
+			channel.truncate(length);
+			return true;
+		} catch (IOException | GeneralSecurityException e) {
+			FilesManager.LogException(e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Encrypts the input file into the output file using the segmented format, with the default
+	 * segment size of {@link #SEGMENT_SIZE}.
+	 * 
+	 * @see {@link #encryptSegmented(File, File, int)}
+	 * @param input - File to encrypt
+	 * @param output - File to save encrypted data to
+	 * @return True - If the file was encrypted
+	 */
+	public boolean encryptSegmented(File input, File output) { return encryptSegmented(input, output, SEGMENT_SIZE); }
+	
+	/**
+	 * Encrypts the input file into the output file using the segmented format. The file is split into
+	 * segments of the given size that are each encrypted with AES-GCM under their own nonce, which allows
+	 * the segments to be encrypted in parallel on the common {@link ForkJoinPool}. This is meant for large
+	 * files (backups, archives) and ignores the transformation of this object, only the key is used.
+	 * The output is written to a temporary file first and then moved into place, as such the input and
+	 * output may be the same file.
+	 * 
+	 * @param input - File to encrypt
+	 * @param output - File to save encrypted data to
+	 * @param segmentSize - Number of bytes of each segment
+	 * @return True - If the file was encrypted
+	 */
+	public boolean encryptSegmented(File input, File output, int segmentSize) {
+		if(segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE)
+			throw new IllegalArgumentException("Segment size must be between 1 and " + MAX_SEGMENT_SIZE + " bytes.");
+		
+		return doSegmented(Cipher.ENCRYPT_MODE, input, output, segmentSize);
+	}
+	
+	/**
+	 * Decrypts a file created by {@link #encryptSegmented(File, File, int)} into the output file. Each
+	 * segment is verified, and if any segment has been altered, removed or reordered then the output
+	 * file is left untouched and this returns false.
+	 * 
+	 * @param input - File to decrypt
+	 * @param output - File to save decrypted data to
+	 * @return True - If the file was decrypted
+	 */
+	public boolean decryptSegmented(File input, File output) { return doSegmented(Cipher.DECRYPT_MODE, input, output, 0); }
+	
+	// Runs the segmented encryption or decryption into a temporary file that then replaces the output
+	private boolean doSegmented(int mode, File input, File output, int segmentSize) {
+		Path target = output.toPath();
+		Path temp = null;
+		
+		try {
+			temp = createTemp(target);
+			
+			try (FileChannel in = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+					FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+				
+				if(mode == Cipher.ENCRYPT_MODE) {
+					byte[] prefix = new byte[8];
+					NonceGenerator.nextBytes(prefix);
+					
+					header.putInt(SEGMENT_MAGIC).putInt(segmentSize).putLong(in.size()).put(prefix).flip();
+					writeFully(out, header.duplicate(), 0);
+				} else {
+					readFully(in, header, 0);
+					header.flip();
+					
+					// The header is checked against the file before its segment size is trusted for any buffer
+					if(header.getInt(0) != SEGMENT_MAGIC || header.getInt(4) <= 0 || header.getInt(4) > MAX_SEGMENT_SIZE || header.getLong(8) < 0 || header.getLong(8) > in.size())
+						throw new IOException("The file " + input.getName() + " is not a segmented encrypted file.");
+				}
+				
+				if(mode == Cipher.DECRYPT_MODE && in.size() != getSegmentedLength(header.getInt(4), header.getLong(8)))
+					throw new IOException("The file " + input.getName() + " has been truncated or extended.");
+				
+				ForkJoinPool.commonPool().invoke(new SegmentTask(mode, in, out, header.array(), 0, getSegmentCount(header.getInt(4), header.getLong(8))));
+				out.force(false);
+			}
+			
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} catch (IOException | CompletionException e) {
+			Throwable cause = e;
+			
+			// Tasks may re-wrap the exception when thrown across threads
+			while(cause instanceof CompletionException && cause.getCause() != null)
+				cause = cause.getCause();
+			
+			FilesManager.LogException(cause instanceof Exception ? (Exception) cause : e);
+			
+			try {
+				if(temp != null)
+					Files.deleteIfExists(temp);
+			} catch (IOException e2) {
+				FilesManager.LogException(e2);
+			}
+			
+			return false;
+		}
+	}
+	
+	// Gets the number of segments for the data length. Empty data still has a single (empty) segment.
+	private static int getSegmentCount(int segmentSize, long length) throws IOException {
+		long count = Math.max(1, (length + segmentSize - 1) / segmentSize);
+		
+		if(count > Integer.MAX_VALUE)
+			throw new IOException("The file is too large for the given segment size.");
+		
+		return (int) count;
+	}
+	
+	// Gets the total length of a segmented file
+	private static long getSegmentedLength(int segmentSize, long length) throws IOException {
+		return SEGMENT_HEADER + length + (long) getSegmentCount(segmentSize, length) * SEGMENT_TAG;
+	}
+	
+	// Writes the data to a temporary file next to the target, which then replaces the target. This
+	// ensures the target is never left partially written.
+	static void writeAtomically(Path target, byte[] data) throws IOException {
+		Path temp = createTemp(target);
+		
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeFully(channel, ByteBuffer.wrap(data), 0);
+				channel.force(false);
+			}
+			
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	// Creates a new, uniquely named temporary file next to the target, as such two writers of the
+	// same target never share (and overwrite) the same temporary file
+	private static Path createTemp(Path target) throws IOException {
+		return Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".tmp");
+	}
+	
+	// Reads until the buffer is full, starting at the given position
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			
+			if(read < 0)
+				throw new IOException("Unexpected end of file.");
+			
+			position += read;
+		}
+	}
+	
+	// Writes the entire buffer, starting at the given position
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining())
+			position += channel.write(buffer, position);
+	}
+	
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Task that encrypts or decrypts a range of segments, splitting the range in half
+	 * until a single segment remains.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 *
+	 */
+	private class SegmentTask extends RecursiveAction {
+		
+		@java.io.Serial
+		private static final long serialVersionUID = -2395170481958122174L;
+		
+		private final int mode;
+		private final FileChannel in, out;
+		private final byte[] header;
+		private final int from, to;
+		
+		protected SegmentTask(int mode, FileChannel in, FileChannel out, byte[] header, int from, int to) {
+			this.mode = mode;
+			this.in = in;
+			this.out = out;
+			this.header = header;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to - from > 1) {
+				int middle = (from + to) >>> 1;
+				
+				invokeAll(new SegmentTask(mode, in, out, header, from, middle), new SegmentTask(mode, in, out, header, middle, to));
+				return;
+			}
+			
+			ByteBuffer info = ByteBuffer.wrap(header);
+			int segmentSize = info.getInt(4);
+			long length = info.getLong(8);
+			
+			long plainOffset = (long) from * segmentSize;
+			int plainLength = (int) Math.min(segmentSize, length - plainOffset);
+			long cipherOffset = SEGMENT_HEADER + plainOffset + (long) from * SEGMENT_TAG;
+			
+			// Nonce is the file's random prefix followed by the segment index
+			byte[] nonce = ByteBuffer.allocate(GCM_NONCE_LENGTH).put(header, 16, 8).putInt(from).array();
+			
+			try {
+				Cipher cipher = Cipher.getInstance(algorithm + "/" + GCM + "/" + NO_PAD);
+				cipher.init(mode, key, new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
+				cipher.updateAAD(header);
+				
+				boolean encrypting = mode == Cipher.ENCRYPT_MODE;
+				byte[] source = new byte[encrypting ? plainLength : plainLength + SEGMENT_TAG];
+				byte[] result = new byte[encrypting ? plainLength + SEGMENT_TAG : plainLength];
+				
+				readFully(in, ByteBuffer.wrap(source), encrypting ? plainOffset : cipherOffset);
+				int written = cipher.doFinal(source, 0, source.length, result, 0);
+				writeFully(out, ByteBuffer.wrap(result, 0, written), encrypting ? cipherOffset : plainOffset);
+			} catch (IOException | GeneralSecurityException e) {
+				throw new CompletionException(e);
+			}
+		}
+	}
+	
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * A set of encrypted records stored within a single array, along with the offsets of
+	 * each record. Record <code>i</code> spans from <code>getOffset(i)</code> up to
+	 * <code>getOffset(i + 1)</code>.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 *
+	 */
+	public static class Batch {
+		private final byte[] data;
+		private final int[] offsets;
+		
+		/**
+		 * Creates a Batch from previously stored data and offsets (i.e. read back from a file).
+		 * The offsets must contain one more entry than the number of records, starting at 0.
+		 * 
+		 * @param data - Encrypted records
+		 * @param offsets - Offsets of the records
+		 */
+		public Batch(byte[] data, int[] offsets) {
+			this.data = data;
+			this.offsets = offsets;
+		}
+		
+		/**
+		 * Gets the number of records within this batch.
+		 * 
+		 * @return INT - Number of records
+		 */
+		public int size() { return offsets.length - 1; }
+		
+		/**
+		 * Gets the array containing every encrypted record.
+		 * 
+		 * @return Byte Array of all records
+		 */
+		public byte[] getData() { return data; }
+		
+		/**
+		 * Gets the offset of the given record within {@link #getData()}.
+		 * 
+		 * @param index - Index of the record
+		 * @return INT - Offset of the record
+		 */
+		public int getOffset(int index) { return offsets[index]; }
+		
+		/**
+		 * Gets a copy of the offsets table.
+		 * 
+		 * @return INT Array of offsets
+		 */
+		public int[] getOffsets() { return offsets.clone(); }
+		
+		/**
+		 * Gets a copy of a single encrypted record, which can be decrypted with {@link Crypto#decrypt(byte[])}.
+		 * 
+		 * @param index - Index of the record
+		 * @return Byte Array of the encrypted record
+		 */
+		public byte[] get(int index) { return Arrays.copyOfRange(data, offsets[index], offsets[index + 1]); }
+		
+		/**
+		 * Gets a read-only view of a single encrypted record without copying it.
+		 * 
+		 * @param index - Index of the record
+		 * @return {@link ByteBuffer} of the encrypted record
+		 */
+		public ByteBuffer slice(int index) { return ByteBuffer.wrap(data, offsets[index], offsets[index + 1] - offsets[index]).slice().asReadOnlyBuffer(); }
+	}
 }
@@ -0,0 +1,222 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Asynchronous facade of a {@link Crypto} object. Each method runs the matching Crypto method on a
+ * bounded pool of worker threads and returns a {@link CompletableFuture} of the result, keeping large
+ * encryption and file work off of the server's main thread. Note that the futures complete on the
+ * worker threads, as such any Bukkit API used within a callback should be scheduled back onto the
+ * main thread.
+ * <br><br>
+ * If the queue of the pool is full, then the returned future fails with a {@link RejectedExecutionException}
+ * rather than running the work on the calling thread.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class CryptoService {
+	
+	private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+	
+	private final Crypto crypto;
+	private final ThreadPoolExecutor executor;
+	private final AtomicLong rejected = new AtomicLong();
+	
+	/**
+	 * Creates a service for the given Crypto object with a worker per available processor and
+	 * a queue of 1024 pending tasks.
+	 * 
+	 * @param crypto - Crypto object to run
+	 */
+	public CryptoService(@Nonnull Crypto crypto) {
+		this(crypto, Runtime.getRuntime().availableProcessors(), 1024);
+	}
+	
+	/**
+	 * Creates a service for the given Crypto object.
+	 * 
+	 * @param crypto - Crypto object to run
+	 * @param threads - Maximum number of worker threads
+	 * @param queueSize - Maximum number of tasks waiting for a worker
+	 */
+	public CryptoService(@Nonnull Crypto crypto, int threads, int queueSize) {
+		this.crypto = crypto;
+		
+		ThreadFactory factory = new ThreadFactory() {
+			private final int pool = POOL_COUNT.incrementAndGet();
+			private final AtomicInteger count = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "CFCore-Crypto-" + pool + "-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				
+				return thread;
+			}
+		};
+		
+		executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), factory, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+	
+	// Submits the task to the pool, failing the future if the pool rejects it
+	private <T> CompletableFuture<T> submit(Supplier<T> task) {
+		try {
+			return CompletableFuture.supplyAsync(task, executor);
+		} catch (RejectedExecutionException e) {
+			rejected.incrementAndGet();
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+	
+	// Submits the task to the pool, failing the future if the pool rejects it
+	private CompletableFuture<Void> submit(Runnable task) {
+		try {
+			return CompletableFuture.runAsync(task, executor);
+		} catch (RejectedExecutionException e) {
+			rejected.incrementAndGet();
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+	
+	/**
+	 * Gets the Crypto object used by this service.
+	 * 
+	 * @return {@link Crypto}
+	 */
+	public Crypto getCrypto() { return crypto; }
+	
+	/**
+	 * @see {@link Crypto#encrypt(byte[])}
+	 */
+	public CompletableFuture<byte[]> encrypt(byte[] data) { return submit(() -> crypto.encrypt(data)); }
+	
+	/**
+	 * @see {@link Crypto#decrypt(byte[])}
+	 */
+	public CompletableFuture<byte[]> decrypt(byte[] data) { return submit(() -> crypto.decrypt(data)); }
+	
+	/**
+	 * @see {@link Crypto#encrypt(File)}
+	 */
+	public CompletableFuture<Void> encrypt(File input) { return submit(() -> crypto.encrypt(input)); }
+	
+	/**
+	 * @see {@link Crypto#decrypt(File)}
+	 */
+	public CompletableFuture<byte[]> decrypt(File input) { return submit(() -> crypto.decrypt(input)); }
+	
+	/**
+	 * @see {@link Crypto#encryptToFile(byte[], File)}
+	 */
+	public CompletableFuture<Void> encryptToFile(byte[] data, File output) { return submit(() -> crypto.encryptToFile(data, output)); }
+	
+	/**
+	 * @see {@link Crypto#encryptToFile(File, File)}
+	 */
+	public CompletableFuture<Void> encryptToFile(File input, File output) { return submit(() -> crypto.encryptToFile(input, output)); }
+	
+	/**
+	 * @see {@link Crypto#decryptToFile(byte[], File)}
+	 */
+	public CompletableFuture<Void> decryptToFile(byte[] data, File output) { return submit(() -> crypto.decryptToFile(data, output)); }
+	
+	/**
+	 * @see {@link Crypto#decryptToFile(File, File)}
+	 */
+	public CompletableFuture<Void> decryptToFile(File input, File output) { return submit(() -> crypto.decryptToFile(input, output)); }
+	
+	/**
+	 * @see {@link Crypto#encryptSegmented(File, File)}
+	 */
+	public CompletableFuture<Boolean> encryptSegmented(File input, File output) { return submit(() -> crypto.encryptSegmented(input, output)); }
+	
+	/**
+	 * @see {@link Crypto#decryptSegmented(File, File)}
+	 */
+	public CompletableFuture<Boolean> decryptSegmented(File input, File output) { return submit(() -> crypto.decryptSegmented(input, output)); }
+	
+	/**
+	 * @see {@link Crypto#encryptMapped(File)}
+	 */
+	public CompletableFuture<Boolean> encryptMapped(File file) { return submit(() -> crypto.encryptMapped(file)); }
+	
+	/**
+	 * @see {@link Crypto#decryptMapped(File)}
+	 */
+	public CompletableFuture<Boolean> decryptMapped(File file) { return submit(() -> crypto.decryptMapped(file)); }
+	
+	/**
+	 * Gets the number of tasks waiting for a worker thread.
+	 * 
+	 * @return INT - Queue depth
+	 */
+	public int getQueueDepth() { return executor.getQueue().size(); }
+	
+	/**
+	 * Gets the number of tasks that can still be queued before tasks are rejected.
+	 * 
+	 * @return INT - Remaining queue capacity
+	 */
+	public int getRemainingCapacity() { return executor.getQueue().remainingCapacity(); }
+	
+	/**
+	 * Gets the approximate number of worker threads that are currently running a task.
+	 * 
+	 * @return INT - Active workers
+	 */
+	public int getActiveCount() { return executor.getActiveCount(); }
+	
+	/**
+	 * Gets the approximate number of tasks that have been completed.
+	 * 
+	 * @return LONG - Completed tasks
+	 */
+	public long getCompletedCount() { return executor.getCompletedTaskCount(); }
+	
+	/**
+	 * Gets the number of tasks that were rejected because the queue was full.
+	 * 
+	 * @return LONG - Rejected tasks
+	 */
+	public long getRejectedCount() { return rejected.get(); }
+	
+	/**
+	 * Stops accepting new tasks. Tasks that were already submitted will still be completed. This
+	 * should be called within the <code>onDisable</code> of the plugin.
+	 */
+	public void shutdown() { executor.shutdown(); }
+	
+	/**
+	 * Stops accepting new tasks and waits up to the given time for the submitted tasks to complete.
+	 * 
+	 * @param timeout - Time to wait
+	 * @param unit - Unit of the time
+	 * @return True - If all tasks completed
+	 * @throws InterruptedException
+	 */
+	public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+		executor.shutdown();
+		return executor.awaitTermination(timeout, unit);
+	}
+	
+	/**
+	 * Checks if this service has been shutdown.
+	 * 
+	 * @return True - If no longer accepting tasks
+	 */
+	public boolean isShutdown() { return executor.isShutdown(); }
+}
@@ -0,0 +1,118 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * Config whose YML file is stored encrypted using a {@link Crypto} object. The file is read once
+ * and decrypted in memory straight into the YamlConfiguration, and is encrypted in memory when
+ * saved. The plain data is never written to the disk. It is suggested to use an authenticated
+ * Crypto (i.e. {@link Crypto#gcm(java.security.Key)}) so that a tampered file is rejected.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public abstract class EncryptedConfig extends AbstractConfig {
+	
+	protected final Crypto crypto;
+	
+	// False while the file has never been decrypted, in which case the data in use is not that of the file
+	private volatile boolean readable;
+	
+	public EncryptedConfig(String path, @Nonnull Crypto crypto) {
+		this(new File(path), crypto);
+	}
+	
+	public EncryptedConfig(File ymlFile, @Nonnull Crypto crypto) {
+		super(ymlFile, false);
+		
+		this.crypto = crypto;
+		
+		reload();
+	}
+	
+	/**
+	 * Reads and decrypts the file again, swapping the new data in. If the file cannot be decrypted,
+	 * then the error is logged and the current data is kept.
+	 * 
+	 * @return True - If the file was decrypted
+	 */
+	@Override
+	public boolean reload() {
+		if(!super.reload())
+			return false;
+		
+		readable = true;
+		return true;
+	}
+	
+	/**
+	 * Reads and decrypts the file into a new YamlConfiguration. A missing or empty file is an empty config.
+	 * 
+	 * @return {@link YamlConfiguration} of the decrypted file
+	 * @throws IOException If the file cannot be read
+	 * @throws InvalidConfigurationException If the file cannot be decrypted or is not valid YAML
+	 */
+	@Override
+	protected YamlConfiguration parse() throws IOException, InvalidConfigurationException {
+		YamlConfiguration config = new YamlConfiguration();
+		
+		if(bukkitFile.exists()) {
+			byte[] data = Files.readAllBytes(bukkitFile.toPath());
+			
+			if(data.length != 0) {
+				ByteBuffer plain = ByteBuffer.allocate(Math.max(0, crypto.getDecryptedSize(data.length)));
+				int length = crypto.decrypt(ByteBuffer.wrap(data), plain);
+				
+				if(length < 0)
+					throw new InvalidConfigurationException("The file " + bukkitFile.getName() + " could not be decrypted.");
+				
+				config.loadFromString(new String(plain.array(), 0, length, StandardCharsets.UTF_8));
+			}
+		}
+		
+		return config;
+	}
+	
+	/**
+	 * Checks if the file was successfully read and decrypted. If this is false, then the stored
+	 * YamlConfiguration is empty and {@link #save()} will not overwrite the file. A later reload
+	 * that fails keeps the data that was decrypted before.
+	 * 
+	 * @return True - If the file was decrypted
+	 */
+	public boolean isReadable() { return readable; }
+	
+	/**
+	 * Encrypts the data to save. If the file could not be decrypted when loaded, then nothing is
+	 * saved to avoid overwriting the encrypted data with an empty config.
+	 * 
+	 * @param yaml - YAML text of the data to save
+	 * @return Byte Array of the encrypted data, or null if it must not be saved
+	 */
+	@Override
+	protected byte[] encode(String yaml) {
+		if(!readable)
+			return null;
+		
+		byte[] data = crypto.encrypt(yaml.getBytes(StandardCharsets.UTF_8));
+		
+		return data.length == 0 ? null : data;
+	}
+	
+	/**
+	 * Gets the Crypto object used for this config.
+	 * 
+	 * @return {@link Crypto}
+	 */
+	protected Crypto getCrypto() { return crypto; }
+}
@@ -0,0 +1,344 @@
+package com.coldfyre.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * Computes checksums and digests of the files registered within a {@link FilesManager}, used for
+ * verifying the integrity of data files (resource packs, world templates, etc.). Files are streamed
+ * through memory-mapped windows rather than being read onto the heap.
+ * <br><br>
+ * Each CRC32C and SHA-256 result is cached along with the size and last modified time of the file, and the
+ * cache is saved to the plugin folder. A file can be changed without changing its size or time, and the cache
+ * file itself can be edited, as such the cache is only used when the caller opts in with
+ * {@link #digest(String, Algorithm, Key, boolean)}, i.e. to skip hashing large files that are only checked for
+ * accidental corruption at startup. {@link #verify(String, Algorithm, Key, byte[])} always hashes the file.
+ * HMAC results are never cached, as they depend on a secret key.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class FileDigest {
+	
+	/**
+	 * Algorithms that can be used for a digest.
+	 */
+	public enum Algorithm {
+		
+		/**
+		 * Fast 4-byte checksum, only suitable for detecting accidental corruption.
+		 */
+		CRC32C,
+		
+		/**
+		 * 32-byte SHA-256 hash of the file.
+		 */
+		SHA256,
+		
+		/**
+		 * 32-byte HMAC-SHA256 of the file, which requires a Key.
+		 */
+		HMAC_SHA256;
+	}
+	
+	// Number of bytes mapped at once when hashing a file
+	private static final long MAP_WINDOW = 64L << 20;
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	
+	private final FilesManager filesManager;
+	private final File cacheFile;
+	private final Map<String, String> cache = new ConcurrentHashMap<String, String>();
+	
+	/**
+	 * Creates a FileDigest for the files of the given FilesManager. The cache is saved
+	 * to the file <i>digests.cache</i> within the plugin folder.
+	 * 
+	 * @param filesManager - FilesManager containing the files
+	 */
+	public FileDigest(@Nonnull FilesManager filesManager) {
+		this(filesManager, new File(filesManager.getPluginFolder(), "digests.cache"));
+	}
+	
+	/**
+	 * Creates a FileDigest for the files of the given FilesManager, using the given file to
+	 * store the cache of results.
+	 * 
+	 * @param filesManager - FilesManager containing the files
+	 * @param cacheFile - File to save the cache to
+	 */
+	public FileDigest(@Nonnull FilesManager filesManager, @Nonnull File cacheFile) {
+		this.filesManager = filesManager;
+		this.cacheFile = cacheFile;
+		
+		if(cacheFile.exists()) {
+			try (FileInputStream fis = new FileInputStream(cacheFile)) {
+				Properties properties = new Properties();
+				properties.load(fis);
+				
+				// HMAC results were cached by older versions, and are no longer used
+				for(String name : properties.stringPropertyNames())
+					if(!name.startsWith(Algorithm.HMAC_SHA256.name()))
+						cache.put(name, properties.getProperty(name));
+			} catch (IOException e) {
+				FilesManager.LogException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the CRC32C checksum of the registered file.
+	 * 
+	 * @param name - Name (key) of the file within the FilesManager
+	 * @return Byte Array of the checksum, or null if the file could not be read
+	 */
+	public byte[] crc32c(String name) { return digest(name, Algorithm.CRC32C, null); }
+	
+	/**
+	 * Gets the SHA-256 hash of the registered file.
+	 * 
+	 * @param name - Name (key) of the file within the FilesManager
+	 * @return Byte Array of the hash, or null if the file could not be read
+	 */
+	public byte[] sha256(String name) { return digest(name, Algorithm.SHA256, null); }
+	
+	/**
+	 * Gets the HMAC-SHA256 of the registered file using the given key.
+	 * 
+	 * @param name - Name (key) of the file within the FilesManager
+	 * @param key - Key of the HMAC
+	 * @return Byte Array of the HMAC, or null if the file could not be read
+	 */
+	public byte[] hmac(String name, @Nonnull Key key) { return digest(name, Algorithm.HMAC_SHA256, key); }
+	
+	/**
+	 * Checks if the digest of the registered file matches the expected digest. The file is always
+	 * hashed, as the cache cannot tell a tampered file from an unchanged one. The comparison is done
+	 * in constant time.
+	 * 
+	 * @param name - Name (key) of the file within the FilesManager
+	 * @param algorithm - Algorithm of the digest
+	 * @param key - Key of the HMAC, or null for other algorithms
+	 * @param expected - Expected digest
+	 * @return True - If the file matches
+	 */
+	public boolean verify(String name, Algorithm algorithm, Key key, byte[] expected) {
+		File file = filesManager.getFile(name);
+		
+		return file != null && verify(file, algorithm, key, expected);
+	}
+	
+	/**
+	 * Checks if the digest of the given file matches the expected digest. The file is always hashed,
+	 * and the comparison is done in constant time.
+	 * 
+	 * @param file - File to hash
+	 * @param algorithm - Algorithm of the digest
+	 * @param key - Key of the HMAC, or null for other algorithms
+	 * @param expected - Expected digest
+	 * @return True - If the file matches
+	 */
+	public boolean verify(@Nonnull File file, @Nonnull Algorithm algorithm, Key key, byte[] expected) {
+		byte[] actual = digest(file, algorithm, key, false);
+		
+		return actual != null && MessageDigest.isEqual(actual, expected);
+	}
+	
+	/**
+	 * Hashes the registered file, without using the cache.
+	 * 
+	 * @param name - Name (key) of the file within the FilesManager
+	 * @param algorithm - Algorithm of the digest
+	 * @param key - Key of the HMAC, or null for other algorithms
+	 * @return Byte Array of the digest, or null if the file is not registered or could not be read
+	 */
+	public byte[] digest(String name, Algorithm algorithm, Key key) { return digest(name, algorithm, key, false); }
+	
+	/**
+	 * Gets the digest of the registered file. See {@link #digest(File, Algorithm, Key, boolean)}.
+	 * 
+	 * @param name - Name (key) of the file within the FilesManager
+	 * @param algorithm - Algorithm of the digest
+	 * @param key - Key of the HMAC, or null for other algorithms
+	 * @param useCache - True to return the cached result of an unchanged file
+	 * @return Byte Array of the digest, or null if the file is not registered or could not be read
+	 */
+	public byte[] digest(String name, Algorithm algorithm, Key key, boolean useCache) {
+		File file = filesManager.getFile(name);
+		
+		return file == null ? null : digest(file, algorithm, key, useCache);
+	}
+	
+	/**
+	 * Hashes the given file, without using the cache.
+	 * 
+	 * @param file - File to hash
+	 * @param algorithm - Algorithm of the digest
+	 * @param key - Key of the HMAC, or null for other algorithms
+	 * @return Byte Array of the digest, or null if the file could not be read
+	 */
+	public byte[] digest(@Nonnull File file, @Nonnull Algorithm algorithm, Key key) { return digest(file, algorithm, key, false); }
+	
+	/**
+	 * Gets the digest of the given file. If the cache is used and the file has the same size and last
+	 * modified time as when it was last hashed, then the cached result is returned without reading the
+	 * file. This only detects changes that also change the size or time, as such it must not be used
+	 * to check that a file has not been tampered with. HMAC results are never cached.
+	 * 
+	 * @param file - File to hash
+	 * @param algorithm - Algorithm of the digest
+	 * @param key - Key of the HMAC, or null for other algorithms
+	 * @param useCache - True to return the cached result of an unchanged file
+	 * @return Byte Array of the digest, or null if the file could not be read
+	 */
+	public byte[] digest(@Nonnull File file, @Nonnull Algorithm algorithm, Key key, boolean useCache) {
+		try {
+			if(algorithm == Algorithm.HMAC_SHA256)
+				return compute(file, algorithm, key);
+			
+			String index = algorithm.name() + ":" + file.getAbsolutePath();
+			String stamp = file.length() + ":" + Files.getLastModifiedTime(file.toPath()).toMillis() + ":";
+			String cached = cache.get(index);
+			
+			if(useCache && cached != null && cached.startsWith(stamp)) {
+				try {
+					return fromHex(cached.substring(stamp.length()));
+				} catch (NumberFormatException e) {
+					// The cache file was edited, as such the file is hashed again
+				}
+			}
+			
+			byte[] result = compute(file, algorithm, key);
+			cache.put(index, stamp + toHex(result));
+			
+			return result;
+		} catch (IOException | GeneralSecurityException e) {
+			FilesManager.LogException(e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Removes any cached results of the given file, forcing it to be hashed again.
+	 * 
+	 * @param file - File to remove
+	 */
+	public void invalidate(File file) {
+		String path = ":" + file.getAbsolutePath();
+		
+		cache.keySet().removeIf(index -> index.endsWith(path));
+	}
+	
+	/**
+	 * Saves the cache of results to the cache file, so that unchanged files are not hashed again
+	 * after a restart. This should be called after verifying the files, or during <code>onDisable</code>.
+	 * 
+	 * @return True - If the cache was saved
+	 */
+	public boolean save() {
+		Properties properties = new Properties();
+		properties.putAll(cache);
+		
+		try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+			properties.store(bos, "CFCore File Digests");
+			Crypto.writeAtomically(cacheFile.toPath(), bos.toByteArray());
+			
+			return true;
+		} catch (IOException e) {
+			FilesManager.LogException(e);
+			return false;
+		}
+	}
+	
+	// Streams the file through mapped windows into the algorithm
+	private byte[] compute(File file, Algorithm algorithm, Key key) throws IOException, GeneralSecurityException {
+		CRC32C crc = null;
+		MessageDigest digest = null;
+		Mac mac = null;
+		
+		switch (algorithm) {
+		case CRC32C:
+			crc = new CRC32C();
+			break;
+		case SHA256:
+			digest = MessageDigest.getInstance("SHA-256");
+			break;
+		case HMAC_SHA256:
+			mac = Mac.getInstance("HmacSHA256");
+			mac.init(key);
+			break;
+		}
+		
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			
+			for(long position = 0; position < length; position += MAP_WINDOW) {
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, length - position));
+				
+				if(crc != null)
+					crc.update(window);
+				else if(digest != null)
+					digest.update(window);
+				else
+					mac.update(window);
+			}
+		}
+		
+		if(crc != null) {
+			long value = crc.getValue();
+			return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+		}
+		
+		return digest != null ? digest.digest() : mac.doFinal();
+	}
+	
+	/**
+	 * Converts the given bytes to a lowercase hexadecimal string.
+	 * 
+	 * @param bytes - Bytes to convert
+	 * @return String of hexadecimal characters
+	 */
+	public static String toHex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		
+		for(int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+		}
+		
+		return new String(chars);
+	}
+	
+	/**
+	 * Converts the given hexadecimal string back into bytes.
+	 * 
+	 * @param hex - String of hexadecimal characters
+	 * @return Byte Array
+	 */
+	public static byte[] fromHex(String hex) {
+		byte[] bytes = new byte[hex.length() / 2];
+		
+		for(int i = 0; i < bytes.length; i++)
+			bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+		
+		return bytes;
+	}
+}
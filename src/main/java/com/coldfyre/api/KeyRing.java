@@ -0,0 +1,341 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * A set of versioned keys used for encrypting data that allows keys to be rotated. Data is always
+ * encrypted with the current key and starts with a header containing the version of the key, and
+ * decryption picks the matching key from this ring. Older keys remain within the ring so that data
+ * can still be decrypted until it's re-encrypted, either lazily with {@link #decryptAndUpgrade(File)}
+ * or in the background with a {@link KeyRotation}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class KeyRing {
+	
+	// Header: Magic (2) | Key Version (4)
+	private static final short MAGIC = 0x434B;
+	protected static final int HEADER = 6;
+	
+	// Striped locks for re-encrypting files, indexed by the hash of the file
+	private static final Object[] LOCKS = new Object[64];
+	
+	static {
+		for(int i = 0; i < LOCKS.length; i++)
+			LOCKS[i] = new Object();
+	}
+	
+	private final String algorithm, transformation, padding;
+	private final Map<Integer, Crypto> keys = new ConcurrentHashMap<Integer, Crypto>();
+	private volatile int current = -1;
+	
+	/**
+	 * Creates an empty KeyRing that uses AES-GCM for all keys.
+	 */
+	public KeyRing() { this(Crypto.ALG, Crypto.GCM, Crypto.NO_PAD); }
+	
+	/**
+	 * Creates an empty KeyRing, where each key uses the given parameters. NULL values
+	 * use the defaults of {@link Crypto}.
+	 * 
+	 * @param algorithm - Algorithm used for encoding.
+	 * @param transformation - Block handling for Algorithm
+	 * @param padding - Padding used for transformations and Algorithms
+	 */
+	public KeyRing(String algorithm, String transformation, String padding) {
+		this.algorithm = algorithm;
+		this.transformation = transformation;
+		this.padding = padding;
+	}
+	
+	/**
+	 * Adds a key with the given version. If this is the first key, then it becomes the current key.
+	 * 
+	 * @param version - Version of the key, must not be negative
+	 * @param key - Key to add
+	 * @return True - If the key was added, false if the version already exists
+	 */
+	public synchronized boolean addKey(int version, @Nonnull Key key) {
+		if(version < 0)
+			throw new IllegalArgumentException("Key versions must not be negative.");
+		else if(keys.containsKey(version))
+			return false;
+		
+		keys.put(version, new Crypto(key, algorithm, transformation, padding));
+		
+		if(current == -1)
+			current = version;
+		
+		return true;
+	}
+	
+	/**
+	 * Adds the key as the next version and makes it the current key. All data encrypted after this
+	 * uses the new key, while older data is still decrypted with its own version.
+	 * 
+	 * @param key - New key
+	 * @return INT - Version of the new key
+	 */
+	public synchronized int rotate(@Nonnull Key key) {
+		int version = keys.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+		
+		addKey(version, key);
+		current = version;
+		
+		return version;
+	}
+	
+	/**
+	 * Sets the key used for encrypting new data.
+	 * 
+	 * @param version - Version of the key
+	 * @return True - If the version exists
+	 */
+	public synchronized boolean setCurrentVersion(int version) {
+		if(!keys.containsKey(version))
+			return false;
+		
+		current = version;
+		return true;
+	}
+	
+	/**
+	 * Removes an old key from the ring. Any data still encrypted with this version can no longer
+	 * be decrypted, as such this should only be done once the rotation is complete. The current
+	 * key cannot be removed.
+	 * 
+	 * @param version - Version of the key
+	 * @return True - If the key was removed
+	 */
+	public synchronized boolean removeKey(int version) {
+		if(version == current)
+			return false;
+		
+		return keys.remove(version) != null;
+	}
+	
+	/**
+	 * Gets the version of the key used for encrypting new data.
+	 * 
+	 * @return INT - Current version, or -1 if there are no keys
+	 */
+	public int getCurrentVersion() { return current; }
+	
+	/**
+	 * Gets all versions of keys within this ring.
+	 * 
+	 * @return Set of versions
+	 */
+	public Set<Integer> getVersions() { return keys.keySet(); }
+	
+	/**
+	 * Gets the version of the key the given data was encrypted with.
+	 * 
+	 * @param data - Encrypted data
+	 * @return INT - Version of the key, or -1 if the data has no version header
+	 */
+	public static int getVersion(byte[] data) {
+		if(data == null || data.length < HEADER)
+			return -1;
+		
+		ByteBuffer header = ByteBuffer.wrap(data, 0, HEADER);
+		
+		return header.getShort() == MAGIC ? header.getInt() : -1;
+	}
+	
+	/**
+	 * Checks if the data is encrypted with the current key.
+	 * 
+	 * @param data - Encrypted data
+	 * @return True - If the data uses the current key
+	 */
+	public boolean isCurrent(byte[] data) { return getVersion(data) == current; }
+	
+	/**
+	 * Encrypts the data with the current key, starting with the version header.
+	 * 
+	 * @param data - Data to encrypt
+	 * @return Byte Array of encrypted data, empty if there are no keys or the data could not be encrypted
+	 */
+	public byte[] encrypt(byte[] data) {
+		int version = current;
+		Crypto crypto = keys.get(version);
+		
+		if(crypto == null)
+			return new byte[0];
+		
+		byte[] encrypted = crypto.encrypt(data);
+		
+		if(encrypted.length == 0)
+			return encrypted;
+		
+		return ByteBuffer.allocate(HEADER + encrypted.length).putShort(MAGIC).putInt(version).put(encrypted).array();
+	}
+	
+	/**
+	 * Decrypts the data using the key of the version within its header.
+	 * 
+	 * @param data - Data to decrypt
+	 * @return Byte Array of decrypted data, empty if the version is unknown or the data could not be decrypted
+	 */
+	public byte[] decrypt(byte[] data) {
+		byte[] plain = doDecrypt(data);
+		
+		return plain == null ? new byte[0] : plain;
+	}
+	
+	// Decrypts the data, returning null if it could not be decrypted (rather than an empty
+	// array, which is also valid data)
+	private byte[] doDecrypt(byte[] data) {
+		Crypto crypto = keys.get(getVersion(data));
+		
+		if(crypto == null)
+			return null;
+		
+		ByteBuffer output = ByteBuffer.allocate(Math.max(0, crypto.getDecryptedSize(data.length - HEADER)));
+		int length = crypto.decrypt(ByteBuffer.wrap(data, HEADER, data.length - HEADER), output);
+		
+		if(length < 0)
+			return null;
+		
+		return length == output.capacity() ? output.array() : Arrays.copyOf(output.array(), length);
+	}
+	
+	/**
+	 * Encrypts the data with the current key and saves it to the file. The file is replaced
+	 * atomically.
+	 * 
+	 * @param data - Data to encrypt
+	 * @param output - File to save the data to
+	 * @return True - If the data was saved
+	 */
+	public boolean encryptToFile(byte[] data, File output) {
+		byte[] encrypted = encrypt(data);
+		
+		if(encrypted.length == 0)
+			return false;
+		
+		try {
+			Crypto.writeAtomically(output.toPath(), encrypted);
+			return true;
+		} catch (IOException e) {
+			FilesManager.LogException(e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Decrypts the given file using the key of the version within its header.
+	 * 
+	 * @param input - File to decrypt
+	 * @return Byte Array of decrypted data, or null if the file could not be read
+	 */
+	public byte[] decrypt(File input) {
+		try {
+			return decrypt(Files.readAllBytes(input.toPath()));
+		} catch (IOException e) {
+			FilesManager.LogException(e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Decrypts the given file, and if the file was encrypted with an older key, then the file is
+	 * re-encrypted with the current key. This allows data to be rotated lazily as it's used rather
+	 * than all at once.
+	 * 
+	 * @param input - File to decrypt
+	 * @return Byte Array of decrypted data, or null if the file could not be read or decrypted
+	 */
+	public byte[] decryptAndUpgrade(File input) {
+		synchronized (getLock(input)) {
+			try {
+				byte[] data = Files.readAllBytes(input.toPath());
+				byte[] plain = doDecrypt(data);
+				
+				if(plain != null && !isCurrent(data))
+					encryptToFile(plain, input);
+				
+				return plain;
+			} catch (IOException e) {
+				FilesManager.LogException(e);
+				return null;
+			}
+		}
+	}
+	
+	/**
+	 * Re-encrypts the given file with the current key if it was encrypted with an older key.
+	 * 
+	 * @param file - File to re-encrypt
+	 * @return Result of the re-encryption
+	 */
+	public Result reencrypt(File file) {
+		synchronized (getLock(file)) {
+			try {
+				byte[] data = Files.readAllBytes(file.toPath());
+				
+				if(isCurrent(data))
+					return Result.CURRENT;
+				else if(!keys.containsKey(getVersion(data)))
+					return Result.UNKNOWN_KEY;
+				
+				byte[] plain = doDecrypt(data);
+				
+				return plain != null && encryptToFile(plain, file) ? Result.ROTATED : Result.FAILED;
+			} catch (IOException e) {
+				FilesManager.LogException(e);
+				return Result.FAILED;
+			}
+		}
+	}
+	
+	// Gets the lock of the file, as such a rotation and an upgrade of the same file never re-encrypt it at once
+	private static Object getLock(File file) { return LOCKS[(file.getAbsoluteFile().hashCode() & 0x7FFFFFFF) % LOCKS.length]; }
+	
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Outcome of re-encrypting a file.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	public enum Result {
+		
+		/**
+		 * The file was re-encrypted with the current key.
+		 */
+		ROTATED,
+		
+		/**
+		 * The file already used the current key.
+		 */
+		CURRENT,
+		
+		/**
+		 * The file has no header or uses a key that is not within the ring.
+		 */
+		UNKNOWN_KEY,
+		
+		/**
+		 * The file could not be read, decrypted or saved.
+		 */
+		FAILED;
+	}
+}
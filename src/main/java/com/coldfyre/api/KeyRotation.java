@@ -0,0 +1,218 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * Background job that re-encrypts a set of files with the current key of a {@link KeyRing}. The
+ * files are processed in small batches on a single low-priority thread, with a pause between
+ * batches and an optional limit on the number of bytes rewritten per second, as such a rotation
+ * never saturates the disk or CPU and the server can keep running while it completes. Files that
+ * are read while the rotation is running can be upgraded early using {@link KeyRing#decryptAndUpgrade(File)}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class KeyRotation {
+	
+	private final KeyRing keyRing;
+	private final Queue<File> pending;
+	private final int total;
+	
+	private int batchSize = 16;
+	private long batchDelay = 1000;
+	private long maxBytesPerSecond = 8L << 20;
+	
+	private final AtomicInteger rotated = new AtomicInteger();
+	private final AtomicInteger skipped = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+	private final CompletableFuture<Void> completion = new CompletableFuture<Void>();
+	
+	private ScheduledExecutorService executor;
+	
+	/**
+	 * Creates a rotation of the given files. The rotation does not begin until {@link #start()} is called.
+	 * 
+	 * @param keyRing - KeyRing with the new current key
+	 * @param files - Files to re-encrypt
+	 */
+	public KeyRotation(@Nonnull KeyRing keyRing, @Nonnull Collection<File> files) {
+		this.keyRing = keyRing;
+		this.pending = new ConcurrentLinkedQueue<File>(files);
+		this.total = files.size();
+	}
+	
+	/**
+	 * Sets the number of files re-encrypted within each batch.
+	 * 
+	 * @param batchSize - Files per batch
+	 * @return This KeyRotation
+	 */
+	public KeyRotation setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+		return this;
+	}
+	
+	/**
+	 * Sets the pause between each batch, which is at least one millisecond.
+	 * 
+	 * @param delay - Time between batches
+	 * @param unit - Unit of the time
+	 * @return This KeyRotation
+	 */
+	public KeyRotation setBatchDelay(long delay, TimeUnit unit) {
+		this.batchDelay = Math.max(1, unit.toMillis(delay));
+		return this;
+	}
+	
+	/**
+	 * Sets the maximum number of bytes rewritten per second. Values of 0 or below remove the limit.
+	 * 
+	 * @param maxBytesPerSecond - Bytes per second
+	 * @return This KeyRotation
+	 */
+	public KeyRotation setMaxBytesPerSecond(long maxBytesPerSecond) {
+		this.maxBytesPerSecond = maxBytesPerSecond;
+		return this;
+	}
+	
+	/**
+	 * Begins the rotation in the background.
+	 * 
+	 * @return {@link CompletableFuture} that completes once every file has been processed, or exceptionally if the rotation failed
+	 */
+	public synchronized CompletableFuture<Void> start() {
+		if(executor != null)
+			return completion;
+		
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "CFCore-KeyRotation");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			
+			return thread;
+		});
+		
+		executor.scheduleWithFixedDelay(this::runBatch, 0, batchDelay, TimeUnit.MILLISECONDS);
+		return completion;
+	}
+	
+	/**
+	 * Stops the rotation after the current file. Files that have not been processed keep their
+	 * current key and the rotation can be started again by creating a new KeyRotation.
+	 */
+	public synchronized void cancel() {
+		if(executor != null)
+			executor.shutdownNow();
+		
+		completion.cancel(false);
+	}
+	
+	// Re-encrypts the next batch of files, sleeping after each file to stay within the byte limit. A file that
+	// throws is counted as failed, while anything else that fails ends the rotation, as a task that throws is
+	// never run again by the executor and the completion would otherwise never be completed.
+	private void runBatch() {
+		try {
+			for(int i = 0; i < batchSize && !Thread.currentThread().isInterrupted(); i++) {
+				File file = pending.poll();
+				
+				if(file == null) {
+					executor.shutdown();
+					completion.complete(null);
+					return;
+				}
+				
+				long start = System.nanoTime();
+				
+				try {
+					switch (keyRing.reencrypt(file)) {
+					case ROTATED:
+						rotated.incrementAndGet();
+						break;
+					case CURRENT:
+						skipped.incrementAndGet();
+						break;
+					default:
+						failed.incrementAndGet();
+					}
+				} catch (RuntimeException e) {
+					FilesManager.LogException(e);
+					failed.incrementAndGet();
+				}
+				
+				if(maxBytesPerSecond > 0) {
+					long wait = file.length() * 1000 / maxBytesPerSecond - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+					
+					try {
+						if(wait > 0)
+							Thread.sleep(wait);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+			
+			if(pending.isEmpty()) {
+				executor.shutdown();
+				completion.complete(null);
+			}
+		} catch (RuntimeException | Error e) {
+			executor.shutdown();
+			completion.completeExceptionally(e);
+		}
+	}
+	
+	/**
+	 * Gets the number of files that have not been processed yet.
+	 * 
+	 * @return INT - Remaining files
+	 */
+	public int getRemaining() { return pending.size(); }
+	
+	/**
+	 * Gets the total number of files of this rotation.
+	 * 
+	 * @return INT - Total files
+	 */
+	public int getTotal() { return total; }
+	
+	/**
+	 * Gets the number of files that were re-encrypted with the current key.
+	 * 
+	 * @return INT - Rotated files
+	 */
+	public int getRotated() { return rotated.get(); }
+	
+	/**
+	 * Gets the number of files that already used the current key.
+	 * 
+	 * @return INT - Skipped files
+	 */
+	public int getSkipped() { return skipped.get(); }
+	
+	/**
+	 * Gets the number of files that could not be re-encrypted, either from an unknown key or an error.
+	 * 
+	 * @return INT - Failed files
+	 */
+	public int getFailed() { return failed.get(); }
+	
+	/**
+	 * Checks if every file has been processed.
+	 * 
+	 * @return True - If the rotation is complete
+	 */
+	public boolean isDone() { return completion.isDone(); }
+}
@@ -0,0 +1,310 @@
+package com.coldfyre.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * Stack of configs where each layer overrides the values of the layers below it, such as the defaults
+ * within the jar, then a global file, then a file per world or server. Rather than checking each layer on
+ * every lookup, the layers are merged once into a single flat view of every value by its full path. The view
+ * is only merged again after one of the layers is reloaded, refreshed, or changed and marked with
+ * {@link AbstractConfig#markDirty()}.
+ * <br><br>
+ * Values are overridden by their full path, as such a list within a higher layer replaces the whole list
+ * below it, and a value replaces a section below it along with everything within that section. Worlds that
+ * share the same global layers can each have a view made with {@link #derive(AbstractConfig)}.
+ * <br><br>
+ * <pre>
+ * LayeredConfig global = LayeredConfig.fromResource(plugin, "config.yml").addLayer(globalConfig);
+ * LayeredConfig nether = global.derive(netherConfig);
+ * </pre>
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class LayeredConfig {
+	
+	private final YamlConfiguration defaults;
+	private final List<AbstractConfig> layers = new ArrayList<AbstractConfig>();
+	private final Runnable invalidate = this::invalidate;
+	private final AtomicInteger changes = new AtomicInteger();
+	private volatile View view;
+	
+	/**
+	 * Creates a layered config on top of the given defaults.
+	 * 
+	 * @param defaults - Lowest layer, or null for none
+	 */
+	public LayeredConfig(YamlConfiguration defaults) {
+		this.defaults = defaults != null ? defaults : new YamlConfiguration();
+	}
+	
+	/**
+	 * Creates a layered config on top of the defaults found within the jar of the plugin.
+	 * 
+	 * @param plugin - Plugin containing the resource
+	 * @param resource - Path of the YML file within the jar (i.e. <i>config.yml</i>)
+	 * @return {@link LayeredConfig}
+	 */
+	public static LayeredConfig fromResource(@Nonnull JavaPlugin plugin, @Nonnull String resource) {
+		YamlConfiguration defaults = new YamlConfiguration();
+		InputStream stream = plugin.getResource(resource);
+		
+		if(stream != null) {
+			try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+				defaults = YamlConfiguration.loadConfiguration(reader);
+			} catch (IOException e) {
+				FilesManager.LogException(e);
+			}
+		}
+		
+		return new LayeredConfig(defaults);
+	}
+	
+	/**
+	 * Adds a layer on top of the current layers, which overrides any value it sets. The view is merged
+	 * again whenever the layer is reloaded or changed.
+	 * 
+	 * @param layer - Config of the layer
+	 * @return This LayeredConfig
+	 */
+	public synchronized LayeredConfig addLayer(@Nonnull AbstractConfig layer) {
+		layers.add(layer);
+		layer.addUpdateListener(invalidate);
+		invalidate();
+		
+		return this;
+	}
+	
+	/**
+	 * Creates a new layered config with the same layers as this one and the given layer on top, such as
+	 * a world or server specific file. The layers below are shared rather than copied.
+	 * 
+	 * @param layer - Config of the new top layer
+	 * @return {@link LayeredConfig}
+	 */
+	public synchronized LayeredConfig derive(@Nonnull AbstractConfig layer) {
+		LayeredConfig derived = new LayeredConfig(defaults);
+		
+		for(AbstractConfig current : layers)
+			derived.addLayer(current);
+		
+		return derived.addLayer(layer);
+	}
+	
+	/**
+	 * Stops following the changes of the layers. This should be called when the layered config is no
+	 * longer used (i.e. a derived config of an unloaded world), as the layers would otherwise keep it.
+	 */
+	public synchronized void close() {
+		for(AbstractConfig layer : layers)
+			layer.removeUpdateListener(invalidate);
+	}
+	
+	/**
+	 * Gets the number of layers, not counting the defaults.
+	 * 
+	 * @return INT - Number of layers
+	 */
+	public int getLayerCount() { return layers.size(); }
+	
+	// Drops the merged view, which is merged again on the next lookup
+	private void invalidate() {
+		changes.incrementAndGet();
+		view = null;
+	}
+	
+	// Gets the merged view, merging the layers if one changed
+	private View getView() {
+		View view = this.view;
+		
+		if(view != null)
+			return view;
+		
+		synchronized (this) {
+			if(this.view != null)
+				return this.view;
+			
+			int change = changes.get();
+			View merged = merge();
+			
+			// A layer changed while merging, as such the view is only used for this lookup
+			if(change == changes.get())
+				this.view = merged;
+			
+			return merged;
+		}
+	}
+	
+	private View merge() {
+		Map<String, Object> values = new HashMap<String, Object>();
+		Set<String> sections = new HashSet<String>();
+		
+		mergeLayer(defaults, values, sections);
+		
+		for(AbstractConfig layer : layers)
+			mergeLayer(layer.getYamlConfiguration(), values, sections);
+		
+		return new View(values, sections);
+	}
+	
+	private static void mergeLayer(YamlConfiguration config, Map<String, Object> values, Set<String> sections) {
+		for(Map.Entry<String, Object> entry : config.getValues(true).entrySet()) {
+			String path = entry.getKey();
+			
+			if(entry.getValue() instanceof ConfigurationSection) {
+				sections.add(path);
+				values.remove(path);
+			} else {
+				values.put(path, entry.getValue());
+				
+				// A value replacing a section of a lower layer also replaces everything within it
+				if(sections.remove(path)) {
+					String prefix = path + ".";
+					
+					values.keySet().removeIf(key -> key.startsWith(prefix));
+					sections.removeIf(key -> key.startsWith(prefix));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks if any layer sets the given path, either as a value or a section.
+	 * 
+	 * @param path - Full path
+	 * @return True - If the path exists
+	 */
+	public boolean contains(String path) {
+		View view = getView();
+		return view.values.containsKey(path) || view.sections.contains(path);
+	}
+	
+	/**
+	 * Gets the value of the highest layer that sets the given path.
+	 * 
+	 * @param path - Full path
+	 * @return Value, or null if no layer sets it
+	 */
+	public Object get(String path) { return getView().values.get(path); }
+	
+	/**
+	 * Gets the value of the given path as a String.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if no layer sets it
+	 * @return String - Value, or the default
+	 */
+	public String getString(String path, String def) {
+		Object value = get(path);
+		return value == null ? def : value.toString();
+	}
+	
+	/**
+	 * Gets the number of the given path as an int.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if no layer sets a number
+	 * @return INT - Value, or the default
+	 */
+	public int getInt(String path, int def) {
+		Object value = get(path);
+		return value instanceof Number ? ((Number) value).intValue() : def;
+	}
+	
+	/**
+	 * Gets the number of the given path as a long.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if no layer sets a number
+	 * @return LONG - Value, or the default
+	 */
+	public long getLong(String path, long def) {
+		Object value = get(path);
+		return value instanceof Number ? ((Number) value).longValue() : def;
+	}
+	
+	/**
+	 * Gets the number of the given path as a double.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if no layer sets a number
+	 * @return DOUBLE - Value, or the default
+	 */
+	public double getDouble(String path, double def) {
+		Object value = get(path);
+		return value instanceof Number ? ((Number) value).doubleValue() : def;
+	}
+	
+	/**
+	 * Gets the boolean of the given path.
+	 * 
+	 * @param path - Full path
+	 * @param def - Value used if no layer sets a boolean
+	 * @return BOOLEAN - Value, or the default
+	 */
+	public boolean getBoolean(String path, boolean def) {
+		Object value = get(path);
+		return value instanceof Boolean ? (Boolean) value : def;
+	}
+	
+	/**
+	 * Gets the list of the given path as Strings.
+	 * 
+	 * @param path - Full path
+	 * @return Unmodifiable List of Strings, empty if no layer sets a list
+	 */
+	public List<String> getStringList(String path) {
+		Object value = get(path);
+		
+		if(!(value instanceof List))
+			return Collections.emptyList();
+		
+		List<String> list = new ArrayList<String>();
+		
+		for(Object item : (List<?>) value)
+			if(item != null)
+				list.add(item.toString());
+		
+		return Collections.unmodifiableList(list);
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Merged values of every layer by their full path, along with the paths of the sections.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static final class View {
+		final Map<String, Object> values;
+		final Set<String> sections;
+		
+		View(Map<String, Object> values, Set<String> sections) {
+			this.values = values;
+			this.sections = sections;
+		}
+	}
+}
@@ -0,0 +1,313 @@
+package com.coldfyre.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import com.coldfyre.api.manager.FilesManager;
+
+/**
+ * Config for very large YML files that hold many top-level sections (i.e. an entry per region or player),
+ * of which only a few are used at once. When loaded, the file is only scanned for the byte offsets of each
+ * top-level key. A section is read and parsed the first time it is used, and is then kept within a cache of
+ * the most recently used sections. As such the load time and memory used depend on the sections used rather
+ * than the size of the file. The file is only scanned again by {@link #reload()}, which is also called when
+ * the file changes while it's watched, or when a section that is not cached is read from a changed file.
+ * <br><br>
+ * Each top-level section is parsed on its own, as such YAML anchors cannot be shared between them. The
+ * {@link ConfigKey}s, binding and change listeners of {@link AbstractConfig} only see the data that is
+ * parsed as a whole, which is empty for this config, so the methods of this class should be used instead.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public abstract class LazyConfig extends AbstractConfig {
+	
+	private final int maxSections;
+	private volatile Index index;
+	
+	public LazyConfig(String path, int maxSections) {
+		this(new File(path), maxSections);
+	}
+	
+	/**
+	 * Creates the config of the given file, keeping up to the given number of parsed sections.
+	 * 
+	 * @param ymlFile - YML File of the config
+	 * @param maxSections - Maximum number of parsed sections kept in memory
+	 * @throws IllegalArgumentException If maxSections is not positive
+	 */
+	public LazyConfig(File ymlFile, int maxSections) {
+		super(ymlFile, false);
+		
+		if(maxSections <= 0)
+			throw new IllegalArgumentException("maxSections must be positive: " + maxSections);
+		
+		this.maxSections = maxSections;
+		
+		if(!reload())
+			index = new Index(new LinkedHashMap<String, long[]>(), -1, -1, maxSections);
+	}
+	
+	/**
+	 * Scans the file again for its top-level keys and clears the parsed sections. If the file cannot
+	 * be read, then the error is logged and the current index is kept.
+	 * 
+	 * @return True - If the file was scanned
+	 */
+	@Override
+	public boolean reload() {
+		try {
+			index = createIndex();
+			notifyUpdate();
+			return true;
+		} catch (IOException e) {
+			FilesManager.LogException(e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Only parts of the file are ever loaded, as such the file is never saved as a whole.
+	 * 
+	 * @param yaml - YAML text of the data to save
+	 * @return Always null
+	 */
+	@Override
+	protected byte[] encode(String yaml) { return null; }
+	
+	/**
+	 * Gets the top-level keys of the file, in the order of the file. No section is parsed.
+	 * 
+	 * @return Set of the keys
+	 */
+	public Set<String> getKeys() { return index.positions.keySet(); }
+	
+	/**
+	 * Checks if the file contains the given top-level key. No section is parsed.
+	 * 
+	 * @param key - Top-level key
+	 * @return True - If the key exists
+	 */
+	public boolean contains(String key) { return index.positions.containsKey(key); }
+	
+	/**
+	 * Gets the top-level section of the given key, parsing it if it's not cached.
+	 * 
+	 * @param key - Top-level key
+	 * @return {@link ConfigurationSection}, or null if the key does not exist or is not a section
+	 */
+	public ConfigurationSection getSection(String key) {
+		YamlConfiguration config = load(key);
+		
+		return config == null ? null : config.getConfigurationSection(key);
+	}
+	
+	/**
+	 * Gets the value at the given full path, parsing the top-level section it's within if it's not cached.
+	 * The top-level key is the longest key of the file that the path starts with, as such quoted keys that
+	 * contain a '.' are found as well.
+	 * 
+	 * @param path - Full path of the value
+	 * @return Value, or null if it does not exist
+	 */
+	public Object get(String path) {
+		String key = findKey(index, path);
+		
+		// A key that is not known yet may have been added to a file changed without a reload
+		if(key == null && isChanged(index) && reload())
+			key = findKey(index, path);
+		
+		YamlConfiguration config = key == null ? null : load(key);
+		
+		return config == null ? null : config.get(path);
+	}
+	
+	/**
+	 * Gets the number of sections that are currently parsed and held in memory.
+	 * 
+	 * @return INT - Parsed sections
+	 */
+	public int getCachedCount() { return index.sections.size(); }
+	
+	// Gets the longest top-level key of the index that is the path or a parent of it, or null if there is none
+	private static String findKey(Index index, String path) {
+		for(int split = path.length(); split > 0; split = path.lastIndexOf('.', split - 1)) {
+			String key = path.substring(0, split);
+			
+			if(index.positions.containsKey(key))
+				return key;
+		}
+		
+		return null;
+	}
+	
+	// Reads and parses the part of the file holding the given key
+	private YamlConfiguration load(String key) {
+		Index index = this.index;
+		YamlConfiguration config = index.sections.get(key);
+		
+		if(config != null)
+			return config;
+		
+		// The file is read anyway, as such a file changed without a reload is scanned again first
+		if(isChanged(index)) {
+			reload();
+			index = this.index;
+		}
+		
+		long[] position = index.positions.get(key);
+		
+		if(position == null)
+			return null;
+		
+		ByteBuffer buffer = ByteBuffer.allocate((int) (position[1] - position[0]));
+		
+		try (FileChannel channel = FileChannel.open(bukkitFile.toPath(), StandardOpenOption.READ)) {
+			while(buffer.hasRemaining() && channel.read(buffer, position[0] + buffer.position()) > 0);
+			
+			config = new YamlConfiguration();
+			config.loadFromString(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+		} catch (IOException | InvalidConfigurationException e) {
+			FilesManager.LogException(e);
+			return null;
+		}
+		
+		index.sections.put(key, config);
+		return config;
+	}
+	
+	// Checks if the file is not the one the index was read from
+	private boolean isChanged(Index index) { return index.length != bukkitFile.length() || index.modified != bukkitFile.lastModified(); }
+	
+	// Scans the file for the lines that start a top-level key, storing where each key starts and ends
+	private Index createIndex() throws IOException {
+		Map<String, long[]> positions = new LinkedHashMap<String, long[]>();
+		long length = bukkitFile.length();
+		long modified = bukkitFile.lastModified();
+		
+		if(!bukkitFile.exists())
+			return new Index(positions, length, modified, maxSections);
+		
+		try (InputStream in = new FileInputStream(bukkitFile)) {
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			byte[] block = new byte[1 << 16];
+			long[] last = null;
+			long offset = 0;
+			long lineStart = 0;
+			int read;
+			
+			while((read = in.read(block)) != -1) {
+				int from = 0;
+				
+				for(int i = 0; i < read; i++) {
+					if(block[i] != '\n')
+						continue;
+					
+					addStart(line, block, from, i);
+					last = addKey(positions, line, lineStart, length, last);
+					lineStart = offset + i + 1;
+					from = i + 1;
+				}
+				
+				addStart(line, block, from, read);
+				offset += read;
+			}
+			
+			addKey(positions, line, lineStart, length, last);
+		}
+		
+		return new Index(positions, length, modified, maxSections);
+	}
+	
+	// Only the start of a line is needed to find a key, as such at most 1024 bytes of it are kept
+	private static void addStart(ByteArrayOutputStream line, byte[] block, int from, int to) {
+		int count = Math.min(to - from, 1024 - line.size());
+		
+		if(count > 0)
+			line.write(block, from, count);
+	}
+	
+	// Stores the key started by the line, if any, ending the previous key there. Returns the positions of the latest key.
+	private static long[] addKey(Map<String, long[]> positions, ByteArrayOutputStream line, long lineStart, long length, long[] last) {
+		String key = getTopLevelKey(line.toString(StandardCharsets.UTF_8));
+		
+		line.reset();
+		
+		if(key == null)
+			return last;
+		
+		if(last != null)
+			last[1] = lineStart;
+		
+		long[] position = new long[] {lineStart, length};
+		
+		positions.put(key, position);
+		return position;
+	}
+	
+	// Gets the key of a line that is not indented, or null if the line does not start a key
+	private static String getTopLevelKey(String line) {
+		if(line.isEmpty())
+			return null;
+		
+		char first = line.charAt(0);
+		
+		if(first == ' ' || first == '\t' || first == '#' || first == '-' || first == '\r' || line.startsWith("..."))
+			return null;
+		
+		if(first == '\'' || first == '"') {
+			int end = line.indexOf(first, 1);
+			return end < 0 ? null : line.substring(1, end);
+		}
+		
+		int colon = line.indexOf(':');
+		return colon <= 0 ? null : line.substring(0, colon).trim();
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Start and end offsets of each top-level key, along with the size and time of the file they
+	 * were read from and the sections parsed from that file. A new index is made when the file changes,
+	 * as such sections of the old file are never mixed with the new one.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static final class Index {
+		final Map<String, long[]> positions;
+		final long length;
+		final long modified;
+		final Map<String, YamlConfiguration> sections;
+		
+		Index(Map<String, long[]> positions, long length, long modified, int maxSections) {
+			this.positions = Collections.unmodifiableMap(positions);
+			this.length = length;
+			this.modified = modified;
+			
+			sections = Collections.synchronizedMap(new LinkedHashMap<String, YamlConfiguration>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, YamlConfiguration> eldest) { return size() > maxSections; }
+			});
+		}
+	}
+}
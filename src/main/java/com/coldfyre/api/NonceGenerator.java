@@ -0,0 +1,140 @@
+package com.coldfyre.api;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Source of secure random bytes for IVs, nonces and salts that avoids contention between threads.
+ * Each thread has its own {@link SecureRandom} (DRBG when available, which holds no shared lock) and
+ * a buffer of random bytes that is refilled in bulk, as such many threads doing small encryptions
+ * do not wait on each other or call into the SecureRandom for every message.
+ * <br><br>
+ * Optionally, {@link #nextCounterNonce(byte[], int)} provides 12-byte GCM nonces made from a random
+ * per-thread prefix and a counter, which never repeat within a thread and only need new random
+ * bytes once every 2<sup>32</sup> nonces.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public final class NonceGenerator {
+	
+	private static final int BUFFER_SIZE = 4096;
+	private static final ThreadLocal<NonceGenerator> LOCAL = ThreadLocal.withInitial(NonceGenerator::new);
+	
+	private final SecureRandom random;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position = BUFFER_SIZE;
+	
+	// Counter nonces: 8-byte random prefix | 4-byte counter
+	private final byte[] prefix = new byte[8];
+	private int counter;
+	
+	private NonceGenerator() {
+		SecureRandom random;
+		
+		try {
+			random = SecureRandom.getInstance("DRBG");
+		} catch (NoSuchAlgorithmException e) {
+			random = new SecureRandom();
+		}
+		
+		this.random = random;
+	}
+	
+	/**
+	 * Fills the given array with random bytes.
+	 * 
+	 * @param bytes - Array to fill
+	 */
+	public static void nextBytes(byte[] bytes) { nextBytes(bytes, 0, bytes.length); }
+	
+	/**
+	 * Fills part of the given array with random bytes.
+	 * 
+	 * @param bytes - Array to fill
+	 * @param offset - Position to start at
+	 * @param length - Number of bytes to fill
+	 */
+	public static void nextBytes(byte[] bytes, int offset, int length) { LOCAL.get().fill(bytes, offset, length); }
+	
+	/**
+	 * Gets a random integer from 0 (inclusive) up to the bound (exclusive).
+	 * 
+	 * @param bound - Upper bound, must be positive
+	 * @return INT - Random value
+	 */
+	public static int nextInt(int bound) {
+		if(bound <= 0)
+			throw new IllegalArgumentException("Bound must be positive.");
+		
+		NonceGenerator generator = LOCAL.get();
+		byte[] bytes = new byte[4];
+		int limit = Integer.MAX_VALUE - (Integer.MAX_VALUE % bound);
+		int value;
+		
+		// Rejects values past the last full multiple of the bound to avoid bias
+		do {
+			generator.fill(bytes, 0, 4);
+			value = ByteBuffer.wrap(bytes).getInt() & Integer.MAX_VALUE;
+		} while(value >= limit);
+		
+		return value % bound;
+	}
+	
+	/**
+	 * Writes a 12-byte counter-based nonce into the array. The nonce is a random 8-byte prefix, chosen
+	 * once per thread, followed by a 4-byte counter. A new prefix is chosen when the counter wraps. This
+	 * should only be used for GCM nonces.
+	 * 
+	 * @param bytes - Array to write to
+	 * @param offset - Position to start at
+	 */
+	public static void nextCounterNonce(byte[] bytes, int offset) { LOCAL.get().counterNonce(bytes, offset); }
+	
+	// Copies bytes out of the buffer, refilling it when empty
+	private void fill(byte[] bytes, int offset, int length) {
+		if(length > BUFFER_SIZE / 2) {
+			byte[] large = new byte[length];
+			
+			random.nextBytes(large);
+			System.arraycopy(large, 0, bytes, offset, length);
+			return;
+		}
+		
+		while(length > 0) {
+			if(position == BUFFER_SIZE) {
+				random.nextBytes(buffer);
+				position = 0;
+			}
+			
+			int count = Math.min(length, BUFFER_SIZE - position);
+			
+			System.arraycopy(buffer, position, bytes, offset, count);
+			
+			// Used bytes are cleared so that they don't remain in memory
+			Arrays.fill(buffer, position, position + count, (byte) 0);
+			
+			position += count;
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	// Writes the prefix and counter, choosing a new prefix on the first use and when the counter wraps
+	private void counterNonce(byte[] bytes, int offset) {
+		if(counter == 0)
+			fill(prefix, 0, prefix.length);
+		
+		System.arraycopy(prefix, 0, bytes, offset, prefix.length);
+		
+		bytes[offset + 8] = (byte) (counter >>> 24);
+		bytes[offset + 9] = (byte) (counter >>> 16);
+		bytes[offset + 10] = (byte) (counter >>> 8);
+		bytes[offset + 11] = (byte) counter;
+		
+		counter++;
+	}
+}
@@ -0,0 +1,239 @@
+package com.coldfyre.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Index of the names of the online players, kept up to date as players join and quit rather than looping
+ * over every online player when searching. The names are held lowercase within a sorted array, as such all
+ * players whose name starts with a given prefix are found with a binary search, no matter how many players
+ * are online. The arrays are replaced on each join or quit and never changed, so searching needs no lock and
+ * may be done from any thread (i.e. asynchronous tab completion).
+ * <br><br>
+ * The index is registered by CFCore when enabled, which owns the listener; until then, or once the owning plugin
+ * is disabled, {@link #isRegistered()} is false and callers should fall back to {@link Bukkit#getOnlinePlayers()}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public final class OnlinePlayerIndex implements Listener {
+	
+	private static final OnlinePlayerIndex INSTANCE = new OnlinePlayerIndex();
+	
+	private static volatile Snapshot snapshot = new Snapshot(new String[0], new Player[0]);
+	
+	// Plugin the listener is registered with, the index is only kept up to date while it's enabled
+	private static volatile Plugin owner;
+	
+	private OnlinePlayerIndex() {}
+	
+	/**
+	 * Fills the index with the players already online (i.e. after a reload) and registers the listener
+	 * that keeps it up to date. Nothing is done if the index is already owned by another enabled plugin.
+	 * 
+	 * @param plugin - Plugin to register the listener with, which then owns the index
+	 */
+	public static synchronized void register(@Nonnull JavaPlugin plugin) {
+		if(isRegistered())
+			return;
+		
+		List<Player> players = new ArrayList<Player>(Bukkit.getOnlinePlayers());
+		String[] names = new String[players.size()];
+		Player[] sorted = new Player[players.size()];
+		
+		players.sort((first, second) -> first.getName().toLowerCase(Locale.ROOT).compareTo(second.getName().toLowerCase(Locale.ROOT)));
+		
+		for(int i = 0; i < sorted.length; i++) {
+			sorted[i] = players.get(i);
+			names[i] = sorted[i].getName().toLowerCase(Locale.ROOT);
+		}
+		
+		snapshot = new Snapshot(names, sorted);
+		Bukkit.getPluginManager().registerEvents(INSTANCE, plugin);
+		owner = plugin;
+	}
+	
+	/**
+	 * Empties the index, used when the plugin that registered it is disabled (which removes its listeners).
+	 * Nothing is done if the index is owned by another plugin.
+	 * 
+	 * @param plugin - Plugin that registered the index
+	 */
+	public static synchronized void unregister(@Nonnull JavaPlugin plugin) {
+		if(owner != plugin)
+			return;
+		
+		owner = null;
+		snapshot = new Snapshot(new String[0], new Player[0]);
+	}
+	
+	/**
+	 * Checks if the index is registered and kept up to date, being while the plugin that registered it
+	 * is enabled.
+	 * 
+	 * @return True - If the index can be used
+	 */
+	public static boolean isRegistered() {
+		Plugin owner = OnlinePlayerIndex.owner;
+		
+		return owner != null && owner.isEnabled();
+	}
+	
+	/**
+	 * Gets the number of players within the index.
+	 * 
+	 * @return INT - Online players
+	 */
+	public static int size() { return snapshot.names.length; }
+	
+	/**
+	 * Gets the online players whose name starts with the given prefix, ignoring case, in the
+	 * alphabetical order of their names.
+	 * 
+	 * @param prefix - Start of the name, or an empty String for every player
+	 * @return List of players
+	 */
+	public static List<Player> getPlayers(@Nonnull String prefix) {
+		List<Player> players = new ArrayList<Player>();
+		
+		addPlayers(prefix.toLowerCase(Locale.ROOT), players);
+		return players;
+	}
+	
+	/**
+	 * Adds the online players whose name starts with the given lowercase prefix to the given collection.
+	 * 
+	 * @param prefix - Lowercase start of the name
+	 * @param players - Collection to add the players to
+	 */
+	public static void addPlayers(@Nonnull String prefix, @Nonnull Collection<? super Player> players) {
+		Snapshot snapshot = OnlinePlayerIndex.snapshot;
+		int start = snapshot.startOf(prefix);
+		
+		for(int i = start; i < snapshot.names.length && snapshot.names[i].startsWith(prefix); i++)
+			players.add(snapshot.players[i]);
+	}
+	
+	/**
+	 * Gets the names of the online players whose name starts with the given prefix, ignoring case.
+	 * 
+	 * @param prefix - Start of the name, or an empty String for every player
+	 * @return Unmodifiable List of names
+	 */
+	public static List<String> getNames(@Nonnull String prefix) {
+		Snapshot snapshot = OnlinePlayerIndex.snapshot;
+		String lower = prefix.toLowerCase(Locale.ROOT);
+		int start = snapshot.startOf(lower), end = start;
+		
+		while(end < snapshot.names.length && snapshot.names[end].startsWith(lower))
+			end++;
+		
+		String[] names = new String[end - start];
+		
+		for(int i = start; i < end; i++)
+			names[i - start] = snapshot.players[i].getName();
+		
+		return Collections.unmodifiableList(Arrays.asList(names));
+	}
+	
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onJoin(PlayerJoinEvent event) { add(event.getPlayer()); }
+	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent event) { remove(event.getPlayer()); }
+	
+	// Copies the arrays with the player inserted at its sorted position
+	private static synchronized void add(Player player) {
+		Snapshot current = snapshot;
+		String name = player.getName().toLowerCase(Locale.ROOT);
+		int at = current.startOf(name);
+		
+		String[] names = new String[current.names.length + 1];
+		Player[] players = new Player[names.length];
+		
+		System.arraycopy(current.names, 0, names, 0, at);
+		System.arraycopy(current.players, 0, players, 0, at);
+		System.arraycopy(current.names, at, names, at + 1, current.names.length - at);
+		System.arraycopy(current.players, at, players, at + 1, current.players.length - at);
+		
+		names[at] = name;
+		players[at] = player;
+		snapshot = new Snapshot(names, players);
+	}
+	
+	// Copies the arrays without the player
+	private static synchronized void remove(Player player) {
+		Snapshot current = snapshot;
+		String name = player.getName().toLowerCase(Locale.ROOT);
+		int at = current.startOf(name);
+		
+		while(at < current.names.length && current.names[at].equals(name) && current.players[at] != player)
+			at++;
+		
+		if(at == current.names.length || current.players[at] != player)
+			return;
+		
+		String[] names = new String[current.names.length - 1];
+		Player[] players = new Player[names.length];
+		
+		System.arraycopy(current.names, 0, names, 0, at);
+		System.arraycopy(current.players, 0, players, 0, at);
+		System.arraycopy(current.names, at + 1, names, at, names.length - at);
+		System.arraycopy(current.players, at + 1, players, at, players.length - at);
+		
+		snapshot = new Snapshot(names, players);
+	}
+
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Sorted lowercase names of the online players along with the players of the same positions. A
+	 * snapshot is never changed once made.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static final class Snapshot {
+		final String[] names;
+		final Player[] players;
+		
+		Snapshot(String[] names, Player[] players) {
+			this.names = names;
+			this.players = players;
+		}
+		
+		// Gets the first position of a name that is not before the given prefix
+		int startOf(String prefix) {
+			int low = 0, high = names.length;
+			
+			while(low < high) {
+				int middle = (low + high) >>> 1;
+				
+				if(names[middle].compareTo(prefix) < 0)
+					low = middle + 1;
+				else
+					high = middle;
+			}
+			
+			return low;
+		}
+	}
+}
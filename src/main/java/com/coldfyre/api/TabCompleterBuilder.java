@@ -3,8 +3,12 @@ package com.coldfyre.api;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.bukkit.Bukkit;
@@ -15,8 +19,6 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import com.coldfyre.api.utilities.Util;
-
 public class TabCompleterBuilder {
 	private TabCompleterCreator creator;
 	
@@ -30,10 +32,15 @@ public class TabCompleterBuilder {
 	public TabCompleterBuilder(String cmd) { creator = new TabCompleterCreator(cmd); }
 	
 	/**
-	 * Builds the TabCompleter and returns the Object to be used for a plugin command.
+	 * Builds the TabCompleter and returns the Object to be used for a plugin command. The options are
+	 * sorted once here for prefix searching; any change made to the Builder afterwards is sorted again
+	 * on the next tab completion.
 	 * @return
 	 */
-	public TabCompleter build() { return creator; }
+	public TabCompleter build() {
+		creator.compile();
+		return creator;
+	}
 	
 	/**
 	 * Similar to the {@link #build()} method, this will create the TabCompleter while also
@@ -44,14 +51,14 @@ public class TabCompleterBuilder {
 	 * @return TabCompleter - The TabCompleter from the builder
 	 */
 	public TabCompleter buildAndApply(JavaPlugin plugin) {
-		plugin.getCommand(creator.cmd).setTabCompleter(creator);
+		plugin.getCommand(creator.cmd).setTabCompleter(build());
 		
 		return creator;
 	}
 	
 	// checks that the given command in the position is there
 	private boolean ensure(int argPos, String command) {
-		if(!creator.commands.containsKey(argPos + "_" + command)) {
+		if(!creator.commands.containsKey(key(argPos, command))) {
 			addCommand(argPos, command);
 			return false;
 		}
@@ -59,15 +66,17 @@ public class TabCompleterBuilder {
 		return true;
 	}
 	
-	private Players.PLAYERS_LETTER[] removeDuplicateLetters(Players.PLAYERS_LETTER[] ltrs) {
-		List<Players.PLAYERS_LETTER> arrayHolder = new ArrayList<Players.PLAYERS_LETTER>();
+	// Gets the key of the options of a command, the base command (position 0) is keyed in lowercase
+	private static String key(int argPos, String command) { return argPos + "_" + (argPos == 0 ? command.toLowerCase(Locale.ROOT) : command); }
+	
+	// Gets the bit mask of the given letters, any duplicate letters are set once
+	private static int toMask(Players.PLAYERS_LETTER[] ltrs) {
+		int mask = 0;
 		
-		for(Players.PLAYERS_LETTER ltr : ltrs) {
-			if(!arrayHolder.contains(ltr))
-				arrayHolder.add(ltr);
-		}
+		for(Players.PLAYERS_LETTER ltr : ltrs)
+			mask |= 1 << ltr.ordinal();
 		
-		return (Players.PLAYERS_LETTER[]) arrayHolder.toArray();
+		return mask;
 	}
 	
 	/**
@@ -81,10 +90,10 @@ public class TabCompleterBuilder {
 	 * @return True - If command was added successfully
 	 */
 	public boolean addCommand(int argPos, String command) {
-		if(creator.commands.containsKey(argPos + "_" + command))
+		if(creator.commands.containsKey(key(argPos, command)))
 			return false;
 		
-		creator.commands.put(argPos + "_" + command, new ArrayList<String>());
+		creator.put(key(argPos, command), new ArrayList<String>());
 		
 		return true;
 	}
@@ -100,10 +109,10 @@ public class TabCompleterBuilder {
 	public void addTabOption(int argPos, String command, String option) {
 		ensure(argPos, command);
 		
-		List<String> options = creator.commands.get(argPos + "_" + command);
+		List<String> options = creator.commands.get(key(argPos, command));
 		
 		options.add(option);
-		creator.commands.put(argPos + "_" + command, options);
+		creator.put(key(argPos, command), options);
 	}
 	
 	/**
@@ -116,15 +125,8 @@ public class TabCompleterBuilder {
 	public void addTabOption(int argPos, String command, Players playerFlag) {
 		ensure(argPos, command);
 		
-		List<String> tabList = creator.commands.get(argPos + "_" + command);
-		
-		for(String line : tabList) {
-			if(line.startsWith("playerinfo+" + playerFlag.name()))
-				return;
-		}
-		
-		tabList.add("playerinfo+" + playerFlag.name());
-		creator.commands.put(argPos + "_" + command, tabList);
+		if(!creator.getPlayers(key(argPos, command)).containsKey(playerFlag))
+			creator.putPlayers(key(argPos, command), playerFlag, 0);
 	}
 	
 	/**
@@ -143,47 +145,10 @@ public class TabCompleterBuilder {
 			return;
 		}
 		
-		List<String> tabList = creator.commands.get(argPos + "_" + command);
-		int loc = 0;
-		
-		for(String line : tabList) {
-			if(line.startsWith("playerinfo+" + playerFlag.name())) {
-				for(Players.PLAYERS_LETTER ltr : letter) {
-					String[] details = line.split("+");
-					
-					if(details.length == 2)
-						line += ("+" + ltr.name());
-					else {
-						boolean hit = false;
-						
-						for(String l : details) {
-							if(l.equals(ltr.name())) {
-								hit = true;
-								break;
-							}
-						}
-						
-						if(!hit) {
-							line += ("+" + ltr.name());
-						}
-					}
-				}
-				
-				tabList.set(loc, line);
-				creator.commands.put(argPos + "_" + command, tabList);
-				return;
-			}
-			
-			loc++;
-		}
-		
-		String option = "playerinfo+" + playerFlag.name();
-		
-		for(Players.PLAYERS_LETTER ltrs : removeDuplicateLetters(letter))
-			option += ("+" + ltrs.name());
+		ensure(argPos, command);
 		
-		tabList.add(option);
-		creator.commands.put(argPos + "_" + command, tabList);
+		Integer mask = creator.getPlayers(key(argPos, command)).get(playerFlag);
+		creator.putPlayers(key(argPos, command), playerFlag, (mask == null ? 0 : mask) | toMask(letter));
 	}
 	
 	/**
@@ -194,15 +159,15 @@ public class TabCompleterBuilder {
 	 * @param option - Line to remove
 	 */
 	public void removeTabOption(int argPos, String command, int option) {
-		if(!ensure(argPos, argPos == 0 ? creator.cmd.toLowerCase() : command))
+		if(!ensure(argPos, argPos == 0 ? creator.cmd : command))
 			return;
 		
-		List<String> tabList = creator.commands.get(argPos + "_" + command);
+		List<String> tabList = creator.commands.get(key(argPos, command));
 		if(tabList.isEmpty())
 			return;
 		
 		tabList.remove(option);
-		creator.commands.put(argPos + "_" + command, tabList);
+		creator.put(key(argPos, command), tabList);
 	}
 	
 	/**
@@ -213,15 +178,15 @@ public class TabCompleterBuilder {
 	 * @param option - Option to remove
 	 */
 	public void removeTabOption(int argPos, String command, String option) {
-		if(!ensure(argPos, argPos == 0 ? creator.cmd.toLowerCase() : command))
+		if(!ensure(argPos, argPos == 0 ? creator.cmd : command))
 			return;
 		
-		List<String> tabList = creator.commands.get(argPos + "_" + command);
+		List<String> tabList = creator.commands.get(key(argPos, command));
 		if(tabList.isEmpty())
 			return;
 		
 		tabList.remove(option);
-		creator.commands.put(argPos + "_" + command, tabList);
+		creator.put(key(argPos, command), tabList);
 	}
 	
 	/**
@@ -232,26 +197,10 @@ public class TabCompleterBuilder {
 	 * @param playerFlag - {@link Players} Flag to remove
 	 */
 	public void removeTabOption(int argPos, String command, Players playerFlag) {
-		if(!ensure(argPos, argPos == 0 ? creator.cmd.toLowerCase() : command))
-			return;
-		
-		List<String> tabList = creator.commands.get(argPos + "_" + command);
-		if(tabList.isEmpty())
+		if(!ensure(argPos, argPos == 0 ? creator.cmd : command))
 			return;
 		
-		int hit = -1;
-		
-		for(int i = 0; i < tabList.size(); i++) {
-			if(tabList.get(i).startsWith("playerinfo+" + playerFlag.name())) {
-				hit = i;
-				break;
-			}
-		}
-		
-		if(hit != -1)
-			tabList.remove(hit);
-		
-		creator.commands.put(argPos + "_" + command, tabList);
+		creator.removePlayers(key(argPos, command), playerFlag);
 	}
 	
 	/**
@@ -263,39 +212,17 @@ public class TabCompleterBuilder {
 	 * @param letter - Letters to remove
 	 */
 	public void removeTabOption(int argPos, String command, Players playerFlag, Players.PLAYERS_LETTER... letter) {
-		if(!ensure(argPos, argPos == 0 ? creator.cmd.toLowerCase() : command))
+		if(!ensure(argPos, argPos == 0 ? creator.cmd : command))
 			return;
 		else if(letter.length == 0) {
 			removeTabOption(argPos, command, playerFlag);
 			return;
 		}
 		
-		List<String> tabList = creator.commands.get(argPos + "_" + command);
-		if(tabList.isEmpty())
-			return;
-		
-		int loc = 0;
-		String edited = "";
-		
-		for(String line : tabList) {
-			if(line.startsWith("playerinfo+" + playerFlag.name())) {
-				List<String> alter = Arrays.asList(line.split("+"));
-				
-				for(Players.PLAYERS_LETTER ltr : letter)
-					alter.remove(ltr.name());
-				edited = Util.combineArray((String[]) alter.toArray(), "+");
-				break;
-			}
-			
-			loc++;
-		}
-		
-		if(loc != tabList.size()) {
-			tabList.remove(loc);
-			tabList.add(loc, edited);
-		}
+		Integer mask = creator.getPlayers(key(argPos, command)).get(playerFlag);
 		
-		creator.commands.put(argPos + "_" + command, tabList);
+		if(mask != null)
+			creator.putPlayers(key(argPos, command), playerFlag, mask & ~toMask(letter));
 	}
 	
 	/**
@@ -305,7 +232,7 @@ public class TabCompleterBuilder {
 	 * @param command - Command to remove
 	 */
 	public void removeCommand(int argPos, String command) {
-		creator.commands.remove(argPos + "_" + command);
+		creator.remove(key(argPos, command));
 	}
 	
 	/**
@@ -316,7 +243,7 @@ public class TabCompleterBuilder {
 	 * @return True - If command exists
 	 */
 	public boolean hasCommand(int argPos, String command) {
-		return creator.commands.get(argPos + "_" + command) != null;
+		return creator.commands.get(key(argPos, command)) != null;
 	}
 	
 	/**
@@ -327,7 +254,7 @@ public class TabCompleterBuilder {
 	 * @return True - If list of options is NOT empty
 	 */
 	public boolean hasTabOptions(int argPos, String command) {
-		return hasCommand(argPos, command) && !creator.commands.get(argPos + "_" + command).isEmpty();
+		return hasCommand(argPos, command) && (!creator.commands.get(key(argPos, command)).isEmpty() || !creator.getPlayers(key(argPos, command)).isEmpty());
 	}
 	
 	/**
@@ -340,7 +267,7 @@ public class TabCompleterBuilder {
 	 */
 	public boolean hasTabOptions(int argPos, String command, String option) {
 		if(hasTabOptions(argPos, command)) {
-			List<String> temp = creator.commands.get(argPos + "_" + command);
+			List<String> temp = creator.commands.get(key(argPos, command));
 			
 			for(String s : temp) {
 				if(s.contains(option))
@@ -362,7 +289,7 @@ public class TabCompleterBuilder {
 	 * @return True - If Flag (base) exists
 	 */
 	public boolean hasTabOptions(int argPos, String command, Players playerFlag) {
-		return hasTabOptions(argPos, command, playerFlag.name());
+		return creator.getPlayers(key(argPos, command)).containsKey(playerFlag);
 	}
 	
 	/**
@@ -376,16 +303,9 @@ public class TabCompleterBuilder {
 	 * @return True - If letter exist for given Command/Flag
 	 */
 	public boolean hasTabOptions(int argPos, String command, Players playerFlag, Players.PLAYERS_LETTER ltr) {
-		if(hasTabOptions(argPos, command)) {
-			List<String> temp = creator.commands.get(argPos + "_" + command);
-			
-			for(String line : temp) {
-				if(line.contains(playerFlag.name()) && line.split(playerFlag.name())[1].contains(ltr.name()))
-					return true;
-			}
-		}
+		Integer mask = creator.getPlayers(key(argPos, command)).get(playerFlag);
 		
-		return false;
+		return mask != null && (mask & (1 << ltr.ordinal())) != 0;
 	}
 	
 	/**
@@ -415,24 +335,26 @@ public class TabCompleterBuilder {
 	 * @param options - List of options for the command
 	 */
 	public void setTabOptions(int argPos, String command, List<String> options) {
-		ensure(argPos, argPos == 0 ? creator.cmd.toLowerCase() : command);
+		ensure(argPos, argPos == 0 ? creator.cmd : command);
 		
-		creator.commands.put(argPos + "_" + command, options);
+		creator.setOptions(key(argPos, command), options);
 	}
 	
 	/**
 	 * This sets the entire Collection of Tab Options for all commands. This should NOT be used unless
 	 * the correct format of command handling is known. If an incorrect format is given, then this will break.
+	 * Player options given in the former <i>playerinfo+FLAG+A+B</i> format are read once here into
+	 * {@link Players} options.
 	 * 
 	 * @param tabCompleter - Map of ALL commands and Tab Options
 	 */
 	@Deprecated
-	public void setTabOptions(Map<String, List<String>> tabCompleter) { creator.commands = tabCompleter; }
+	public void setTabOptions(Map<String, List<String>> tabCompleter) { creator.setCommands(tabCompleter); }
 	
 	/**
 	 * Clears ALL commands and Tab Options.
 	 */
-	public void clear() { creator.commands.clear(); }
+	public void clear() { creator.clear(); }
 	
 	/**
 	 * Clears all Tab Options for the given Command.
@@ -440,7 +362,7 @@ public class TabCompleterBuilder {
 	 * @param argPos - Position of command
 	 * @param command - Command
 	 */
-	public void clear(int argPos, String command) { creator.commands.put(argPos + "_" + command, new ArrayList<String>()); }
+	public void clear(int argPos, String command) { creator.clear(key(argPos, command)); }
 	
 	/**
 	 * Gets the size of the Tab Options List. This does not account for all the dynamic options, just the count
@@ -451,7 +373,7 @@ public class TabCompleterBuilder {
 	 * @return INT - size of Tab Option list
 	 */
 	public int size(int argPos, String command) {
-		return creator.commands.containsKey(argPos +"_" + command) ? creator.commands.get(argPos + "_" + command).size() : -1;
+		return creator.commands.containsKey(key(argPos, command)) ? creator.commands.get(key(argPos, command)).size() + creator.getPlayers(key(argPos, command)).size() : -1;
 	}
 
 /*********************************** CLASS SEPARATOR *************************************/
@@ -496,6 +418,9 @@ public class TabCompleterBuilder {
 		PLAYERS_ONLINE {
 			@Override
 			public List<OfflinePlayer> getPlayers(PLAYERS_LETTER... ltr) {
+				if(OnlinePlayerIndex.isRegistered())
+					return getPlayers("", ltr);
+				
 				if(ltr.length == 0)
 					return new ArrayList<OfflinePlayer>(getAllOnlinePlayers());
 				
@@ -510,6 +435,33 @@ public class TabCompleterBuilder {
 				
 				return players;
 			}
+			
+			// Searches the index of online names rather than checking every online player
+			@Override
+			public List<OfflinePlayer> getPlayers(String prefix, PLAYERS_LETTER... ltr) {
+				if(!OnlinePlayerIndex.isRegistered())
+					return super.getPlayers(prefix, ltr);
+				
+				List<OfflinePlayer> players = new ArrayList<OfflinePlayer>();
+				String lower = prefix.toLowerCase(Locale.ROOT);
+				
+				if(ltr.length == 0) {
+					OnlinePlayerIndex.addPlayers(lower, players);
+					return players;
+				}
+				
+				// Names within a letter start with the letter or "_" and the letter, each a single range of the index
+				for(PLAYERS_LETTER l : ltr) {
+					String letter = l.name().toLowerCase(Locale.ROOT);
+					
+					for(String start : new String[] {letter, "_" + letter}) {
+						if(lower.startsWith(start) || start.startsWith(lower))
+							OnlinePlayerIndex.addPlayers(lower.length() > start.length() ? lower : start, players);
+					}
+				}
+				
+				return players;
+			}
 		},
 		
 		/**
@@ -597,6 +549,25 @@ public class TabCompleterBuilder {
 		 */
 		public abstract List<OfflinePlayer> getPlayers(PLAYERS_LETTER... ltr);
 		
+		/**
+		 * Gets the list of players of the Player flag whose name starts with the given prefix, ignoring case. Additionally,
+		 * if an array of letters are provided, then collection of players will reduce to the given letters.
+		 * 
+		 * @param prefix - Start of the name, or an empty String for every player
+		 * @param ltr - Array of Letters
+		 * @return {@link List}<{@link OfflinePlayer}> - List of Players
+		 */
+		public List<OfflinePlayer> getPlayers(String prefix, PLAYERS_LETTER... ltr) {
+			List<OfflinePlayer> players = new ArrayList<OfflinePlayer>();
+			
+			for(OfflinePlayer p : getPlayers(ltr)) {
+				if(p.getName() != null && p.getName().regionMatches(true, 0, prefix, 0, prefix.length()))
+					players.add(p);
+			}
+			
+			return players;
+		}
+		
 		public static Players getFlag(String value) {
 			for(Players tf : values()) {
 				if(tf.name().equals(value.toUpperCase()))
@@ -717,46 +688,236 @@ public class TabCompleterBuilder {
 	 */
 	private class TabCompleterCreator implements TabCompleter {
 		private Map<String, List<String>> commands;
+		private Map<String, Map<Players, Integer>> players;
 		private String cmd;
 		
+		// Compiled options of each command, null after any change until compiled again
+		private volatile Map<String, Options> compiled;
+		
 		protected TabCompleterCreator(String cmd) {
 			this.cmd = cmd;
 			commands = new HashMap<String, List<String>>();
+			players = new HashMap<String, Map<Players, Integer>>();
 			
-			commands.put("0_" + cmd, new ArrayList<>());
+			commands.put(key(0, cmd), new ArrayList<>());
 		}
 		
-		private List<String> playerToString(List<OfflinePlayer> players) {
-			List<String> convert = new ArrayList<String>();
+		private void put(String key, List<String> options) {
+			commands.put(key, options);
+			compiled = null;
+		}
+		
+		// Gets the player options of a command, by flag to their letter mask (0 for every letter)
+		private Map<Players, Integer> getPlayers(String key) {
+			Map<Players, Integer> flags = players.get(key);
+			return flags == null ? Collections.emptyMap() : flags;
+		}
+		
+		private void putPlayers(String key, Players flag, int mask) {
+			players.computeIfAbsent(key, k -> new EnumMap<Players, Integer>(Players.class)).put(flag, mask);
+			compiled = null;
+		}
+		
+		private void removePlayers(String key, Players flag) {
+			getPlayers(key).remove(flag);
+			compiled = null;
+		}
+		
+		private void remove(String key) {
+			commands.remove(key);
+			players.remove(key);
+			compiled = null;
+		}
+		
+		private void clear() {
+			commands.clear();
+			players.clear();
+			compiled = null;
+		}
+		
+		private void clear(String key) {
+			commands.put(key, new ArrayList<String>());
+			players.remove(key);
+			compiled = null;
+		}
+		
+		// Sets the options of a command, reading any option of the former "playerinfo+FLAG+A+B" format as a player option
+		private void setOptions(String key, List<String> options) {
+			List<String> literals = new ArrayList<String>();
+			players.remove(key);
 			
-			for(OfflinePlayer p : players)
-				convert.add(p.getName());
+			for(String line : options) {
+				if(!line.startsWith("playerinfo+")) {
+					literals.add(line);
+					continue;
+				}
+				
+				String[] details = line.split("\\+");
+				Players flag = details.length > 1 ? Players.getFlag(details[1]) : null;
+				
+				if(flag == null)
+					continue;
+				
+				int mask = 0;
+				
+				for(int i = 2; i < details.length; i++) {
+					Players.PLAYERS_LETTER ltr = Players.PLAYERS_LETTER.getLetter(details[i]);
+					
+					if(ltr != null)
+						mask |= 1 << ltr.ordinal();
+				}
+				
+				// Two lines of the same flag list the players of both, as such a line without letters lists every player
+				Integer current = getPlayers(key).get(flag);
+				putPlayers(key, flag, current == null ? mask : current == 0 || mask == 0 ? 0 : current | mask);
+			}
 			
-			return convert;
+			commands.put(key, literals);
+			compiled = null;
 		}
-
+		
+		private void setCommands(Map<String, List<String>> commands) {
+			this.commands = new HashMap<String, List<String>>();
+			players.clear();
+			
+			for(Map.Entry<String, List<String>> entry : commands.entrySet())
+				setOptions(entry.getKey(), entry.getValue());
+		}
+		
+		// Compiles the options of every command into their typed form
+		private Map<String, Options> compile() {
+			Map<String, Options> compiled = new HashMap<String, Options>();
+			
+			for(Map.Entry<String, List<String>> entry : commands.entrySet())
+				compiled.put(entry.getKey(), new Options(entry.getValue(), getPlayers(entry.getKey())));
+			
+			this.compiled = compiled;
+			return compiled;
+		}
+		
+		private void addPlayers(List<String> calc, List<OfflinePlayer> players) {
+			for(OfflinePlayer p : players)
+				calc.add(p.getName());
+		}
+		
 		@Override
 		public List<String> onTabComplete(CommandSender sender, Command command, String label, String[] args) {
+			Map<String, Options> compiled = this.compiled;
+			
+			if(compiled == null)
+				compiled = compile();
+			
+			if(args.length == 0)
+				return null;
+			
+			// The options of the argument being typed belong to the argument before it, or the base command for the first
 			List<String> calc = new ArrayList<String>();
-			List<String> temp = commands.get(args.length == 0 ? 0 + "_" + cmd.toLowerCase() : args.length + "_" + args[args.length - 1]);
-			
-			if(temp != null) {
-				for(String line : temp) {
-					if(line.startsWith("playerinfo+")) {
-						String[] details = line.split("+");
-						Players.PLAYERS_LETTER[] ltrs = new Players.PLAYERS_LETTER[details.length - 2];
-						
-						for(int i = 0; i + 2 < details.length; i++)
-							ltrs[i] = Players.PLAYERS_LETTER.getLetter(details[i + 2]);
-						
-						calc.addAll(playerToString(Players.getFlag(details[1]).getPlayers(ltrs)));
-					} else
-						calc.add(line);
-				}
+			Options options = compiled.get(args.length == 1 ? key(0, cmd) : key(args.length - 1, args[args.length - 2]));
+			String prefix = args[args.length - 1].toLowerCase(Locale.ROOT);
+			
+			// Null lets Bukkit list the online players, as such it's only returned for an argument without options
+			if(options == null)
+				return null;
+			
+			options.find(prefix, calc);
+			
+			for(PlayerOption option : options.players) {
+				if(option.accepts(prefix))
+					addPlayers(calc, option.source.getPlayers(prefix, option.letters));
 			}
 			
-			return calc.isEmpty() ? null : calc;
+			return calc;
 		}
 		
 	}
+
+/************************************* CLASS SEPARATOR ****************************************/
+	
+	/**
+	 * Compiled options of a single command, with the static options sorted by their lowercase form so the options
+	 * starting with what is typed are found with a binary search rather than checking every option. The player
+	 * options are kept as {@link PlayerOption}s, as such nothing is parsed while tab completing.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static final class Options {
+		private final String[] lower;
+		private final String[] options;
+		private final PlayerOption[] players;
+		
+		private Options(List<String> literals, Map<Players, Integer> flags) {
+			String[] sorted = literals.toArray(new String[0]);
+			Arrays.sort(sorted, Comparator.comparing((String option) -> option.toLowerCase(Locale.ROOT)));
+			
+			lower = new String[sorted.length];
+			options = sorted;
+			players = new PlayerOption[flags.size()];
+			
+			for(int i = 0; i < sorted.length; i++)
+				lower[i] = sorted[i].toLowerCase(Locale.ROOT);
+			
+			int i = 0;
+			for(Map.Entry<Players, Integer> flag : flags.entrySet())
+				players[i++] = new PlayerOption(flag.getKey(), flag.getValue());
+		}
+		
+		// Adds the options starting with the given lowercase prefix
+		private void find(String prefix, List<String> calc) {
+			int low = 0, high = lower.length;
+			
+			// First option that is not before the prefix
+			while(low < high) {
+				int middle = (low + high) >>> 1;
+				
+				if(lower[middle].compareTo(prefix) < 0)
+					low = middle + 1;
+				else
+					high = middle;
+			}
+			
+			for(int i = low; i < lower.length && lower[i].startsWith(prefix); i++)
+				calc.add(options[i]);
+		}
+	}
+
+/************************************* CLASS SEPARATOR ****************************************/
+	
+	/**
+	 * Compiled {@link Players} option, holding the flag and the letters it's narrowed to.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static final class PlayerOption {
+		private final Players source;
+		private final int mask;
+		private final Players.PLAYERS_LETTER[] letters;
+		
+		private PlayerOption(Players source, int mask) {
+			List<Players.PLAYERS_LETTER> letters = new ArrayList<Players.PLAYERS_LETTER>();
+			
+			for(Players.PLAYERS_LETTER ltr : Players.PLAYERS_LETTER.values()) {
+				if((mask & (1 << ltr.ordinal())) != 0)
+					letters.add(ltr);
+			}
+			
+			this.source = source;
+			this.mask = mask;
+			this.letters = letters.toArray(new Players.PLAYERS_LETTER[0]);
+		}
+		
+		// Checks if a name starting with the given lowercase prefix can be within the letters, skipping the players if not
+		private boolean accepts(String prefix) {
+			int start = prefix.startsWith("_") ? 1 : 0;
+			
+			if(mask == 0 || prefix.length() <= start)
+				return true;
+			
+			char first = prefix.charAt(start);
+			return first >= 'a' && first <= 'z' && (mask & (1 << (first - 'a'))) != 0;
+		}
+	}
 }
@@ -0,0 +1,373 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the snapshot of the registered keys of an {@link AbstractConfig}, of how the data is
+ * reloaded and of the listeners called for the values that changed.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class AbstractConfigTest extends TestSupport {
+	
+	private static final ConfigKey<Integer> SIZE = ConfigKey.ofInt("size", 1);
+	private static final ConfigKey<Long> PRICE = ConfigKey.ofLong("shop.price", 2);
+	private static final ConfigKey<Double> RATIO = ConfigKey.ofDouble("shop.ratio", 0.5);
+	private static final ConfigKey<Boolean> ENABLED = ConfigKey.ofBoolean("enabled", false);
+	private static final ConfigKey<String> NAME = ConfigKey.ofString("name", "none");
+	private static final ConfigKey<List<String>> WORLDS = ConfigKey.ofStringList("worlds");
+	
+	private static final String YAML = "size: 12\nshop:\n  price: 9999999999\n  ratio: 0.25\nenabled: true\nname: Spawn\nworlds:\n- a\n- b\n";
+	
+	@Test
+	public void registeredKeysAreReadFromSnapshot() throws IOException {
+		AbstractConfig config = open(write("config.yml", YAML));
+		
+		config.register(SIZE, PRICE, RATIO, ENABLED, NAME, WORLDS);
+		
+		// Changing the YamlConfiguration directly is only seen once the keys are resolved again
+		config.getYamlConfiguration().set("size", 20);
+		config.getYamlConfiguration().set("name", "Other");
+		
+		assertEquals(12, config.getInt(SIZE));
+		assertEquals(Integer.valueOf(12), config.get(SIZE));
+		assertEquals(9999999999L, config.getLong(PRICE));
+		assertEquals(0.25, config.getDouble(RATIO));
+		assertTrue(config.getBoolean(ENABLED));
+		assertEquals("Spawn", config.get(NAME));
+		assertEquals(Arrays.asList("a", "b"), config.get(WORLDS));
+		
+		config.refresh();
+		
+		assertEquals(20, config.getInt(SIZE));
+		assertEquals("Other", config.get(NAME));
+	}
+	
+	@Test
+	public void unregisteredKeysAreReadFromData() throws IOException {
+		AbstractConfig config = open(write("config.yml", YAML));
+		
+		config.register(NAME);
+		
+		assertEquals(12, config.getInt(SIZE));
+		assertEquals(9999999999L, config.getLong(PRICE));
+		assertEquals(Arrays.asList("a", "b"), config.get(WORLDS));
+		assertEquals(1, config.getInt(ConfigKey.ofInt("missing", 1)));
+	}
+	
+	@Test
+	public void missingValuesUseDefaults() throws IOException {
+		AbstractConfig config = open(write("config.yml", ""));
+		
+		config.register(SIZE, PRICE, RATIO, ENABLED, NAME, WORLDS);
+		
+		assertEquals(1, config.getInt(SIZE));
+		assertEquals(2, config.getLong(PRICE));
+		assertEquals(0.5, config.getDouble(RATIO));
+		assertFalse(config.getBoolean(ENABLED));
+		assertEquals("none", config.get(NAME));
+		assertEquals(Collections.emptyList(), config.get(WORLDS));
+	}
+	
+	@Test
+	public void sharedKeysKeepValuesPerConfig() throws IOException {
+		AbstractConfig first = open(write("first.yml", "size: 3\n"));
+		AbstractConfig second = open(write("second.yml", "size: 4\n"));
+		
+		first.register(SIZE);
+		second.register(NAME, SIZE);
+		
+		assertEquals(3, first.getInt(SIZE));
+		assertEquals(4, second.getInt(SIZE));
+	}
+	
+	@Test
+	public void setResolvesKeysAroundPath() throws IOException {
+		AbstractConfig config = open(write("config.yml", YAML));
+		
+		config.register(SIZE, PRICE, RATIO);
+		config.set("shop", null);
+		
+		assertEquals(2, config.getLong(PRICE));
+		assertEquals(0.5, config.getDouble(RATIO));
+		assertEquals(12, config.getInt(SIZE));
+		
+		config.set("shop.price", 7);
+		
+		assertEquals(7, config.getLong(PRICE));
+	}
+	
+	@Test
+	public void setDoesNotChangePublishedData() throws IOException {
+		AbstractConfig config = open(write("config.yml", "# Size of the region\nsize: 12\nshop:\n  price: 3 # coins\n"));
+		YamlConfiguration published = config.getYamlConfiguration();
+		
+		config.register(SIZE);
+		config.set("size", 20);
+		config.set("shop.ratio", 0.75);
+		
+		assertEquals(12, published.getInt("size"));
+		assertFalse(published.contains("shop.ratio"));
+		assertEquals(20, config.getInt(SIZE));
+		assertEquals(0.75, config.getYamlConfiguration().getDouble("shop.ratio"));
+		assertEquals(3, config.getYamlConfiguration().getInt("shop.price"));
+		assertEquals(Arrays.asList("Size of the region"), config.getYamlConfiguration().getComments("size"));
+		assertEquals(Arrays.asList("coins"), config.getYamlConfiguration().getInlineComments("shop.price"));
+	}
+	
+	@Test
+	public void manySetsAreSavedOnce() throws Exception {
+		AtomicInteger saves = new AtomicInteger();
+		CountDownLatch saved = new CountDownLatch(1);
+		AbstractConfig config = new AbstractConfig(write("config.yml", ""), false) {
+			
+			@Override
+			protected byte[] encode(String yaml) {
+				saves.incrementAndGet();
+				saved.countDown();
+				return super.encode(yaml);
+			}
+		};
+		
+		config.setSaveInterval(200);
+		
+		for(int i = 0; i < 100; i++)
+			config.set("size", i);
+		
+		assertTrue(config.isDirty());
+		assertTrue(saved.await(10, TimeUnit.SECONDS));
+		assertTrue(config.flush());
+		assertFalse(config.isDirty());
+		assertEquals(1, saves.get());
+		assertEquals(99, YamlConfiguration.loadConfiguration(config.getFile()).getInt("size"));
+	}
+	
+	@Test
+	public void ownSaveIsNotReloaded() throws Exception {
+		File file = write("config.yml", "size: 1\n");
+		AtomicInteger parses = new AtomicInteger();
+		AbstractConfig config = new AbstractConfig(file, false) {
+			
+			@Override
+			protected YamlConfiguration parse() throws IOException, InvalidConfigurationException {
+				parses.incrementAndGet();
+				return super.parse();
+			}
+		};
+		
+		config.setSaveInterval(Long.MAX_VALUE / 2);
+		config.register(SIZE);
+		
+		try {
+			assertTrue(config.watch(10));
+			
+			config.set("size", 2);
+			
+			assertTrue(config.save());
+			
+			// The watcher sees the save, but only a change made by another writer is loaded
+			Thread.sleep(500);
+			
+			assertEquals(0, parses.get());
+			assertEquals(2, config.getInt(SIZE));
+			assertEquals(30, awaitChange(config, file, "size: 30\n"));
+			assertEquals(1, parses.get());
+		} finally {
+			config.unwatch();
+		}
+	}
+	
+	@Test
+	public void keysHaveDistinctSlots() {
+		ConfigKey<Integer> key = ConfigKey.ofInt("size", 1);
+		
+		assertNotEquals(SIZE.getId(), key.getId());
+		assertTrue(key.getId() >= 0);
+	}
+	
+	@Test
+	public void reloadAsyncSwapsData() throws Exception {
+		File file = write("config.yml", "size: 3\n");
+		AbstractConfig config = open(file);
+		AtomicInteger updates = new AtomicInteger();
+		
+		config.register(SIZE);
+		config.addUpdateListener(updates::incrementAndGet);
+		write("config.yml", "size: 4\n");
+		config.reloadAsync().get(10, TimeUnit.SECONDS);
+		
+		assertEquals(4, config.getInt(SIZE));
+		assertEquals(4, config.getYamlConfiguration().getInt("size"));
+		assertEquals(1, updates.get());
+	}
+	
+	@Test
+	public void failedReloadKeepsData() throws IOException {
+		AbstractConfig config = open(write("config.yml", "size: 3\n"));
+		
+		config.register(SIZE);
+		write("config.yml", "size: [3\n");
+		
+		assertFalse(config.reload());
+		assertEquals(3, config.getInt(SIZE));
+		assertEquals(3, config.getYamlConfiguration().getInt("size"));
+	}
+	
+	@Test
+	public void staleReloadIsDropped() throws Exception {
+		CountDownLatch parsing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger parses = new AtomicInteger();
+		AbstractConfig config = new AbstractConfig(write("config.yml", ""), false) {
+			
+			// The first reload is held within the parse, until a later one has been applied
+			@Override
+			protected YamlConfiguration parse() throws IOException, InvalidConfigurationException {
+				YamlConfiguration yaml = new YamlConfiguration();
+				int parse = parses.incrementAndGet();
+				
+				if(parse == 1) {
+					parsing.countDown();
+					
+					try {
+						release.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						throw new IOException(e);
+					}
+				}
+				
+				yaml.set("size", parse);
+				return yaml;
+			}
+		};
+		
+		config.register(SIZE);
+		
+		CompletableFuture<Void> first = config.reloadAsync();
+		
+		assertTrue(parsing.await(10, TimeUnit.SECONDS));
+		assertTrue(config.reload());
+		assertEquals(2, config.getInt(SIZE));
+		
+		release.countDown();
+		first.get(10, TimeUnit.SECONDS);
+		
+		assertEquals(2, config.getInt(SIZE));
+		assertEquals(2, config.getYamlConfiguration().getInt("size"));
+	}
+	
+	@Test
+	public void listenersGetOnlyChangedValues() throws IOException {
+		AbstractConfig config = open(write("config.yml", YAML));
+		Set<String> all = new LinkedHashSet<String>();
+		Set<String> shop = new LinkedHashSet<String>();
+		Set<String> prefix = new LinkedHashSet<String>();
+		Set<String> removed = new LinkedHashSet<String>();
+		AbstractConfig.ChangeListener listener = (path, oldValue, newValue) -> removed.add(path);
+		
+		config.addChangeListener("", (path, oldValue, newValue) -> all.add(path + ":" + oldValue + ">" + newValue));
+		config.addChangeListener("shop", (path, oldValue, newValue) -> shop.add(path + ":" + oldValue + ">" + newValue));
+		config.addChangeListener("sh", (path, oldValue, newValue) -> prefix.add(path));
+		config.addChangeListener("size", listener);
+		config.removeChangeListener("size", listener);
+		
+		write("config.yml", "size: 13\nshop:\n  price: 9999999999\n  ratio: 0.75\nenabled: true\nworlds:\n- a\n- b\nextra: 1\n");
+		
+		assertTrue(config.reload());
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("size:12>13", "shop.ratio:0.25>0.75", "name:Spawn>null", "extra:null>1")), all);
+		assertEquals(Collections.singleton("shop.ratio:0.25>0.75"), shop);
+		assertTrue(prefix.isEmpty());
+		assertTrue(removed.isEmpty());
+	}
+	
+	@Test
+	public void throwingListenerDoesNotStopOthers() throws IOException {
+		AbstractConfig config = open(write("config.yml", "size: 1\n"));
+		AtomicInteger calls = new AtomicInteger();
+		
+		config.addChangeListener("size", (path, oldValue, newValue) -> {
+			throw new IllegalStateException("Test failure");
+		});
+		config.addChangeListener("size", (path, oldValue, newValue) -> calls.incrementAndGet());
+		
+		write("config.yml", "size: 2\n");
+		
+		assertTrue(config.reload());
+		assertEquals(1, calls.get());
+	}
+	
+	@Test
+	public void watchedFileIsReloaded() throws Exception {
+		File file = write("config.yml", "size: 1\n");
+		AbstractConfig config = open(file);
+		
+		config.register(SIZE);
+		
+		try {
+			assertTrue(config.watch(10));
+			assertEquals(2, awaitChange(config, file, "size: 2\n"));
+			assertEquals(2, config.getInt(SIZE));
+		} finally {
+			config.unwatch();
+		}
+	}
+	
+	@Test
+	public void closedWatcherStartsAgain() throws Exception {
+		File file = write("config.yml", "size: 1\n");
+		AbstractConfig config = open(file);
+		
+		try {
+			assertTrue(config.watch(10));
+			assertTrue(ConfigWatcher.isRunning());
+			
+			ConfigWatcher.close();
+			
+			assertFalse(ConfigWatcher.isRunning());
+			assertTrue(config.watch(10));
+			assertTrue(ConfigWatcher.isRunning());
+			assertEquals(3, awaitChange(config, file, "size: 3\n"));
+		} finally {
+			config.unwatch();
+		}
+	}
+	
+	// Writes the file and waits for the watcher to reload it, returning the new size
+	private int awaitChange(AbstractConfig config, File file, String content) throws Exception {
+		CompletableFuture<Object> change = new CompletableFuture<Object>();
+		
+		config.addChangeListener("size", (path, oldValue, newValue) -> change.complete(newValue));
+		write(file.getName(), content);
+		
+		return (Integer) change.get(10, TimeUnit.SECONDS);
+	}
+	
+	private static AbstractConfig open(File file) {
+		AbstractConfig config = new AbstractConfig(file) {};
+		
+		// Saves only when the test asks for it
+		config.setSaveInterval(Long.MAX_VALUE / 2);
+		return config;
+	}
+}
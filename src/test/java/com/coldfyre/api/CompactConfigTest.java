@@ -0,0 +1,138 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a {@link CompactConfig} reads the same values and sections as the YamlConfiguration
+ * it was copied from.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class CompactConfigTest extends TestSupport {
+	
+	private static final String YAML = "name: Spawn\nsize: 12\nshop:\n  price: 9999999999\n  ratio: 0.25\n  open: true\n"
+			+ "  items:\n  - stone\n  - 5\nshop-a: 1\nshop2:\n  x: 2\nempty: {}\n";
+	
+	@Test
+	public void valuesMatchTheSection() throws InvalidConfigurationException {
+		YamlConfiguration yaml = parse(YAML);
+		CompactConfig config = CompactConfig.of(yaml);
+		
+		for(String path : Arrays.asList("name", "size", "shop.price", "shop.ratio", "shop.open", "shop.items", "shop-a", "shop2.x", "missing")) {
+			assertEquals(yaml.get(path) instanceof List ? yaml.getList(path) : yaml.get(path), config.get(path), path);
+			assertEquals(yaml.getString(path), config.getString(path), path);
+			assertEquals(yaml.getLong(path), config.getLong(path), path);
+			assertEquals(yaml.getDouble(path), config.getDouble(path), path);
+			assertEquals(yaml.getBoolean(path), config.getBoolean(path), path);
+			assertEquals(yaml.getStringList(path), config.getStringList(path), path);
+		}
+		
+		assertEquals(8, config.size());
+	}
+	
+	@Test
+	public void typedGettersUseDefaults() throws InvalidConfigurationException {
+		CompactConfig config = CompactConfig.of(parse(YAML));
+		
+		assertEquals(12, config.getInt("size", 3));
+		assertEquals(3, config.getInt("name", 3));
+		assertEquals(0, config.getInt("shop.ratio", 3));
+		assertEquals(1410065407, config.getInt("shop.price"));
+		assertEquals(7, config.getLong("shop.open", 7));
+		assertEquals(12.0, config.getDouble("size", 1.5));
+		assertEquals(1.5, config.getDouble("missing", 1.5));
+		assertTrue(config.getBoolean("size", true));
+		assertFalse(config.getBoolean("shop.open.missing", false));
+		assertEquals("none", config.getString("missing", "none"));
+		assertEquals(Collections.emptyList(), config.getStringList("name"));
+	}
+	
+	@Test
+	public void sectionsAreFoundByPrefix() throws InvalidConfigurationException {
+		CompactConfig config = CompactConfig.of(parse(YAML));
+		
+		assertTrue(config.contains("shop"));
+		assertTrue(config.contains("shop.price"));
+		assertTrue(config.isConfigurationSection("shop"));
+		assertFalse(config.isConfigurationSection("shop.price"));
+		assertFalse(config.isConfigurationSection("sho"));
+		assertFalse(config.contains("sho"));
+		
+		// Sections holding no values are not kept
+		assertFalse(config.contains("empty"));
+		
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("items", "open", "price", "ratio")), config.getKeys("shop", false));
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("x")), config.getKeys("shop2", true));
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("name", "shop", "shop-a", "shop2", "size")), new LinkedHashSet<String>(config.getKeys("", false)));
+		assertTrue(config.getKeys("", true).containsAll(Arrays.asList("shop", "shop.price", "shop2", "shop2.x")));
+		assertTrue(config.getKeys("missing", true).isEmpty());
+	}
+	
+	@Test
+	public void listsAreCopiedAndUnmodifiable() throws InvalidConfigurationException {
+		YamlConfiguration yaml = parse(YAML);
+		CompactConfig config = CompactConfig.of(yaml);
+		List<?> items = (List<?>) config.get("shop.items");
+		
+		yaml.getList("shop.items").clear();
+		
+		assertEquals(Arrays.asList("stone", 5), items);
+		assertEquals(Arrays.asList("stone", "5"), config.getStringList("shop.items"));
+		assertThrows(UnsupportedOperationException.class, () -> items.clear());
+		assertThrows(UnsupportedOperationException.class, () -> config.getStringList("shop.items").clear());
+	}
+	
+	@Test
+	public void pathsAreShared() throws InvalidConfigurationException {
+		CompactConfig first = CompactConfig.of(parse(YAML));
+		CompactConfig second = CompactConfig.of(parse(YAML));
+		
+		assertSame(getKey(first, "shop.price"), getKey(second, "shop.price"));
+	}
+	
+	@Test
+	public void loadsFilesAndConfigs() throws IOException {
+		CompactConfig loaded = CompactConfig.load(write("config.yml", YAML));
+		AbstractConfig config = new AbstractConfig(write("other.yml", YAML)) {};
+		
+		config.setSaveInterval(Long.MAX_VALUE / 2);
+		config.set("size", 20);
+		
+		assertEquals(12, loaded.getInt("size"));
+		assertEquals(20, config.toCompact().getInt("size"));
+		assertNull(CompactConfig.load(folder.resolve("missing.yml").toFile()).get("size"));
+	}
+	
+	// Gets the stored path equal to the given one
+	private static String getKey(CompactConfig config, String path) {
+		for(String key : config.getKeys("", true))
+			if(key.equals(path))
+				return key;
+		
+		return null;
+	}
+	
+	private static YamlConfiguration parse(String yaml) throws InvalidConfigurationException {
+		YamlConfiguration config = new YamlConfiguration();
+		
+		config.loadFromString(yaml);
+		return config;
+	}
+}
@@ -0,0 +1,155 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the conversion of config values by the {@link ConfigBinder}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class ConfigBinderTest extends TestSupport {
+	
+	enum Mode { SURVIVAL, ADVENTURE_MODE }
+	
+	record Item(String material, int amount) {}
+	
+	record Numbers(int count, long big, double ratio, float scale, short small, byte tiny) {}
+	
+	record Kit(String displayName, int cooldown, long price, double weight, boolean enabled, Mode mode, List<Item> items, Map<String, Integer> limits, Item icon) {}
+	
+	static class Settings {
+		private String name = "default";
+		private int size;
+		private Mode mode;
+		private boolean setterUsed;
+		
+		public void setSize(int size) {
+			this.size = size;
+			setterUsed = true;
+		}
+	}
+	
+	@Test
+	public void bindsRecordWithEveryType() throws InvalidConfigurationException {
+		Kit kit = ConfigBinder.bind(load(
+				"display-name: Starter",
+				"cooldown: '60'",
+				"price: 1500",
+				"weight: 2",
+				"enabled: 'true'",
+				"mode: adventure-mode",
+				"items:",
+				"- material: STONE",
+				"  amount: 32",
+				"- material: TORCH",
+				"limits:",
+				"  daily: 2",
+				"  weekly: 5",
+				"icon:",
+				"  material: CHEST",
+				"  amount: 1"), Kit.class);
+		
+		assertEquals("Starter", kit.displayName());
+		assertEquals(60, kit.cooldown());
+		assertEquals(1500L, kit.price());
+		assertEquals(2.0, kit.weight());
+		assertTrue(kit.enabled());
+		assertEquals(Mode.ADVENTURE_MODE, kit.mode());
+		assertEquals(Arrays.asList(new Item("STONE", 32), new Item("TORCH", 0)), kit.items());
+		assertEquals(Map.of("daily", 2, "weekly", 5), kit.limits());
+		assertEquals(new Item("CHEST", 1), kit.icon());
+	}
+	
+	@Test
+	public void missingComponentsUseDefaults() throws InvalidConfigurationException {
+		Kit kit = ConfigBinder.bind(load("mode: creative"), Kit.class);
+		
+		assertNull(kit.displayName());
+		assertEquals(0, kit.cooldown());
+		assertNull(kit.mode());
+		assertTrue(kit.items().isEmpty());
+		assertTrue(kit.limits().isEmpty());
+		assertNull(kit.icon());
+	}
+	
+	@Test
+	public void numbersKeepTheirPrecision() throws InvalidConfigurationException {
+		Numbers numbers = ConfigBinder.bind(load(
+				"count: '-12'",
+				"big: '9007199254740993'",
+				"ratio: '1.7'",
+				"scale: 0.25",
+				"small: ' 300 '",
+				"tiny: -128"), Numbers.class);
+		
+		assertEquals(new Numbers(-12, 9007199254740993L, 1.7, 0.25f, (short) 300, (byte) -128), numbers);
+		assertEquals(9007199254740993L, ConfigBinder.bind(load("big: 9007199254740993"), Numbers.class).big());
+		assertEquals(5, ConfigBinder.bind(load("count: 5.0"), Numbers.class).count());
+	}
+	
+	@Test
+	public void mismatchedNumbersBindNothing() throws InvalidConfigurationException {
+		for(String line : new String[] {"count: 1.7", "count: '1.7'", "count: not a number", "count: 3000000000", "tiny: 128", "small: '40000'", "big: 99999999999999999999", "ratio: fast", "count: [1]"})
+			assertNull(ConfigBinder.bind(load(line), Numbers.class), line);
+	}
+	
+	@Test
+	public void boundCollectionsAreUnmodifiable() throws InvalidConfigurationException {
+		Kit kit = ConfigBinder.bind(load("items:", "- material: STONE", "limits:", "  daily: 2"), Kit.class);
+		
+		assertThrows(UnsupportedOperationException.class, () -> kit.items().clear());
+		assertThrows(UnsupportedOperationException.class, () -> kit.limits().clear());
+	}
+	
+	@Test
+	public void bindsPojoThroughSettersAndFields() throws InvalidConfigurationException {
+		Settings settings = ConfigBinder.bind(load("size: 9", "mode: survival"), Settings.class);
+		
+		assertEquals("default", settings.name);
+		assertEquals(9, settings.size);
+		assertEquals(Mode.SURVIVAL, settings.mode);
+		assertTrue(settings.setterUsed);
+	}
+	
+	@Test
+	public void bindAllKeepsFileOrder() throws InvalidConfigurationException {
+		Map<String, Item> items = ConfigBinder.bindAll(load(
+				"wood:",
+				"  material: OAK_LOG",
+				"stone:",
+				"  material: STONE",
+				"  amount: 4",
+				"note: not a section"), Item.class);
+		
+		assertEquals(Arrays.asList("wood", "stone"), List.copyOf(items.keySet()));
+		assertEquals(new Item("STONE", 4), items.get("stone"));
+	}
+	
+	@Test
+	public void nullSection() {
+		assertNull(ConfigBinder.bind(null, Item.class));
+		assertNotNull(ConfigBinder.bindAll(null, Item.class));
+		assertTrue(ConfigBinder.bindAll(null, Item.class).isEmpty());
+	}
+	
+	private static YamlConfiguration load(String... lines) throws InvalidConfigurationException {
+		YamlConfiguration config = new YamlConfiguration();
+		config.loadFromString(String.join("\n", lines));
+		
+		return config;
+	}
+}
@@ -0,0 +1,211 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of when the {@link ConfigCache} is used, kept or written again.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class ConfigCacheTest extends TestSupport {
+	
+	private static final long TIME = 1_600_000_000_000L;
+	
+	// Length of the magic, version, size, time and hash in front of the values
+	private static final int HEADER = 4 + 1 + 8 + 8 + 32;
+	
+	private static final String COMMENTED = "# Header of the file\n\n# Name of the spawn\nname: Spawn\nsection:\n  size: 12 # blocks\n# Footer of the file\n";
+	
+	@Test
+	public void loadWritesCacheWithSameValues() throws IOException, InvalidConfigurationException {
+		File file = write("config.yml", "name: Spawn\nsize: 12\nprice: 9999999999\nratio: 0.5\nenabled: true\nlist:\n- a\n- b\nsection:\n  child: 1\n", TIME);
+		YamlConfiguration parsed = ConfigCache.load(file);
+		
+		assertTrue(ConfigCache.getCacheFile(file).exists());
+		
+		YamlConfiguration cached = ConfigCache.load(file);
+		
+		assertEquals(parsed.getValues(true).keySet(), cached.getValues(true).keySet());
+		assertEquals("Spawn", cached.getString("name"));
+		assertEquals(12, cached.get("size"));
+		assertEquals(9999999999L, cached.get("price"));
+		assertEquals(0.5, cached.get("ratio"));
+		assertEquals(true, cached.get("enabled"));
+		assertEquals(Arrays.asList("a", "b"), cached.get("list"));
+		assertEquals(1, cached.getInt("section.child"));
+	}
+	
+	@Test
+	public void sameSizeAndTimeUsesCache() throws IOException, InvalidConfigurationException {
+		File file = write("config.yml", "value: 1\n", TIME);
+		ConfigCache.load(file);
+		
+		// Same size and time, as such the file is not read again
+		write("config.yml", "value: 2\n", TIME);
+		
+		assertEquals(1, ConfigCache.load(file).getInt("value"));
+	}
+	
+	@Test
+	public void changedContentInvalidatesCache() throws IOException, InvalidConfigurationException {
+		File file = write("config.yml", "value: 1\n", TIME);
+		ConfigCache.load(file);
+		
+		write("config.yml", "value: 2\n", TIME + 1000);
+		assertEquals(2, ConfigCache.load(file).getInt("value"));
+		
+		write("config.yml", "value: 30\n", TIME + 1000);
+		assertEquals(30, ConfigCache.load(file).getInt("value"));
+		assertEquals(30, ConfigCache.load(file).getInt("value"));
+	}
+	
+	@Test
+	public void touchedFileKeepsCacheWithNewTime() throws IOException, InvalidConfigurationException {
+		File file = write("config.yml", "value: 1\n", TIME);
+		ConfigCache.load(file);
+		
+		assertTrue(file.setLastModified(TIME + 1000));
+		assertEquals(1, ConfigCache.load(file).getInt("value"));
+		
+		try (DataInputStream in = new DataInputStream(new FileInputStream(ConfigCache.getCacheFile(file)))) {
+			in.readInt();
+			in.readByte();
+			
+			assertEquals(file.length(), in.readLong());
+			assertEquals(file.lastModified(), in.readLong());
+		}
+	}
+	
+	@Test
+	public void corruptCacheFallsBackToFile() throws IOException, InvalidConfigurationException {
+		File file = write("config.yml", "value: 1\nsection:\n  child: text\n", TIME);
+		ConfigCache.load(file);
+		
+		File cache = ConfigCache.getCacheFile(file);
+		byte[] bytes = Files.readAllBytes(cache.toPath());
+		Files.write(cache.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+		
+		YamlConfiguration config = ConfigCache.load(file);
+		
+		assertEquals(1, config.getInt("value"));
+		assertEquals("text", config.getString("section.child"));
+		assertEquals(bytes.length, cache.length());
+	}
+	
+	@Test
+	public void corruptLengthFallsBackToFile() throws IOException, InvalidConfigurationException {
+		// Offsets of the count of the root section, the length of its first key and the length of the List
+		int[][] fields = {{HEADER, -1}, {HEADER, Integer.MAX_VALUE}, {HEADER + 4, -1}, {HEADER + 4, Integer.MAX_VALUE}, {HEADER + 13, -1}, {HEADER + 13, Integer.MAX_VALUE}};
+		
+		for(int[] field : fields) {
+			File file = write("config.yml", "list:\n- a\n- b\nvalue: 1\n", TIME);
+			File cache = ConfigCache.getCacheFile(file);
+			
+			cache.delete();
+			ConfigCache.load(file);
+			
+			byte[] bytes = Files.readAllBytes(cache.toPath());
+			Files.write(cache.toPath(), ByteBuffer.wrap(bytes.clone()).putInt(field[0], field[1]).array());
+			
+			YamlConfiguration config = ConfigCache.load(file);
+			
+			assertEquals(Arrays.asList("a", "b"), config.get("list"), "Offset " + field[0] + " set to " + field[1]);
+			assertEquals(1, config.getInt("value"));
+			assertArrayEquals(bytes, Files.readAllBytes(cache.toPath()));
+		}
+	}
+	
+	@Test
+	public void corruptValueFallsBackToFile() throws IOException, InvalidConfigurationException {
+		File file = write("config.yml", "big: 99999999999999999999\n", TIME);
+		File cache = ConfigCache.getCacheFile(file);
+		
+		ConfigCache.load(file);
+		
+		// The first digit of the stored BigInteger, which cannot be parsed once changed
+		byte[] bytes = Files.readAllBytes(cache.toPath());
+		byte[] corrupt = bytes.clone();
+		
+		corrupt[HEADER + 4 + 4 + 3 + 1 + 4] = 'x';
+		Files.write(cache.toPath(), corrupt);
+		
+		assertEquals(new BigInteger("99999999999999999999"), ConfigCache.load(file).get("big"));
+		assertArrayEquals(bytes, Files.readAllBytes(cache.toPath()));
+	}
+	
+	@Test
+	public void cachedConfigKeepsComments() throws IOException, InvalidConfigurationException {
+		File file = write("config.yml", COMMENTED, TIME);
+		YamlConfiguration parsed = ConfigCache.load(file);
+		YamlConfiguration cached = ConfigCache.load(file);
+		
+		assertEquals(Arrays.asList("Header of the file"), cached.options().getHeader());
+		assertEquals(Arrays.asList("Footer of the file"), cached.options().getFooter());
+		assertEquals(Arrays.asList("Name of the spawn"), cached.getComments("name"));
+		assertEquals(Arrays.asList("blocks"), cached.getInlineComments("section.size"));
+		assertEquals(parsed.saveToString(), cached.saveToString());
+	}
+	
+	@Test
+	public void savingCachedConfigKeepsComments() throws IOException, InvalidConfigurationException {
+		File file = write("config.yml", COMMENTED, TIME);
+		
+		ConfigCache.load(file);
+		
+		AbstractConfig config = new AbstractConfig(file, true, true) {};
+		
+		config.set("name", "Hub");
+		
+		assertTrue(config.save());
+		
+		String saved = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		
+		assertTrue(saved.contains("# Header of the file"), saved);
+		assertTrue(saved.contains("# Name of the spawn\nname: Hub"), saved);
+		assertTrue(saved.contains("size: 12 # blocks"), saved);
+		assertTrue(saved.contains("# Footer of the file"), saved);
+	}
+	
+	@Test
+	public void missingFileIsEmpty() throws IOException, InvalidConfigurationException {
+		File file = folder.resolve("missing.yml").toFile();
+		
+		assertTrue(ConfigCache.load(file).getKeys(false).isEmpty());
+		assertFalse(ConfigCache.getCacheFile(file).exists());
+	}
+	
+	@Test
+	public void invalidFileThrows() throws IOException {
+		File file = write("config.yml", "value: [unclosed\n", TIME);
+		
+		assertThrows(InvalidConfigurationException.class, () -> ConfigCache.load(file));
+		assertFalse(ConfigCache.getCacheFile(file).exists());
+	}
+	
+	private File write(String name, String content, long modified) throws IOException {
+		File file = write(name, content);
+		
+		assertTrue(file.setLastModified(modified));
+		return file;
+	}
+}
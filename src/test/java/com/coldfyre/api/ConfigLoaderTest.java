@@ -0,0 +1,73 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the parallel loading of the {@link ConfigLoader}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class ConfigLoaderTest extends TestSupport {
+	
+	@Test
+	public void loadsEveryConfig() throws IOException {
+		List<AbstractConfig> configs = Arrays.asList(config("a.yml", "value: 1\n", false), config("b.yml", "value: 2\n", true), config("missing.yml", null, false));
+		ConfigLoader.Result result = ConfigLoader.loadAll(configs);
+		
+		assertTrue(result.getFailed().isEmpty());
+		assertEquals(3, result.getTimes().size());
+		assertEquals(1, configs.get(0).getYamlConfiguration().getInt("value"));
+		assertEquals(2, configs.get(1).getYamlConfiguration().getInt("value"));
+		assertTrue(configs.get(2).getYamlConfiguration().getKeys(false).isEmpty());
+	}
+	
+	@Test
+	public void reportsMalformedFile() throws IOException {
+		for(boolean binaryCache : new boolean[] {false, true}) {
+			AbstractConfig valid = config("valid.yml", "value: 1\n", binaryCache);
+			AbstractConfig malformed = config("malformed.yml", "value: [unclosed\n", binaryCache);
+			ConfigLoader.Result result = ConfigLoader.loadAll(Arrays.asList(valid, malformed));
+			
+			assertEquals(Collections.singletonList(malformed.getFile()), result.getFailed(), "Binary cache " + binaryCache);
+			assertEquals(1, valid.getYamlConfiguration().getInt("value"));
+		}
+	}
+	
+	@Test
+	public void malformedReloadKeepsCurrentData() throws IOException {
+		AbstractConfig config = config("config.yml", "value: 1\n", false);
+		
+		assertTrue(config.reload());
+		
+		write("config.yml", "value: [unclosed\n");
+		
+		assertEquals(Collections.singletonList(config.getFile()), ConfigLoader.loadAll(Collections.singletonList(config)).getFailed());
+		assertEquals(1, config.getYamlConfiguration().getInt("value"));
+	}
+	
+	@Test
+	public void emptyCollection() {
+		ConfigLoader.Result result = ConfigLoader.loadAll(Collections.<AbstractConfig>emptyList());
+		
+		assertTrue(result.getTimes().isEmpty());
+		assertTrue(result.getFailed().isEmpty());
+	}
+	
+	// Creates a config of the file without loading it, writing the content first unless it's null
+	private AbstractConfig config(String name, String content, boolean binaryCache) throws IOException {
+		File file = content != null ? write(name, content) : folder.resolve(name).toFile();
+		
+		return new AbstractConfig(file, false, binaryCache) {};
+	}
+}
@@ -0,0 +1,96 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Random;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that every combination measured by the Crypto benchmarks round trips, so that the numbers are
+ * never taken from a broken path. The benchmarks themselves are within the <i>benchmark</i> profile and
+ * are not run by the tests, as such the same transformations and key sizes are covered here with smaller
+ * payloads, including those around the AES block size.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class CryptoMatrixTest extends TestSupport {
+	
+	private static final String[] TRANSFORMATIONS = {"CBC", "CTR", "GCM"};
+	private static final int[] KEY_SIZES = {128, 192, 256};
+	private static final int[] SIZES = {0, 1, 15, 16, 17, 1024, 65539};
+	
+	@Test
+	public void arraysRoundTripWithExpectedSizes() {
+		for(String transformation : TRANSFORMATIONS) {
+			for(int keySize : KEY_SIZES) {
+				Crypto crypto = new Crypto(newKey(keySize), "AES", transformation, null);
+				
+				for(int size : SIZES) {
+					String name = transformation + "/" + keySize + "/" + size;
+					byte[] plain = newData(size);
+					byte[] encrypted = crypto.encrypt(plain);
+					
+					assertEquals(crypto.getEncryptedSize(size), encrypted.length, name);
+					assertTrue(crypto.getDecryptedSize(encrypted.length) >= size, name);
+					assertArrayEquals(plain, crypto.decrypt(encrypted));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void filesRoundTrip() {
+		File file = folder.resolve("encrypted.bin").toFile();
+		
+		for(String transformation : TRANSFORMATIONS) {
+			for(int keySize : KEY_SIZES) {
+				Crypto crypto = new Crypto(newKey(keySize), "AES", transformation, null);
+				
+				for(int size : SIZES) {
+					byte[] plain = newData(size);
+					
+					crypto.encryptToFile(plain, file);
+					
+					assertEquals(crypto.getEncryptedSize(size), file.length(), transformation + "/" + keySize + "/" + size);
+					assertArrayEquals(plain, crypto.decrypt(file));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void coldAndWarmObjectsAreInterchangeable() {
+		for(String transformation : TRANSFORMATIONS) {
+			SecretKeySpec key = newKey(256);
+			Crypto warm = new Crypto(key, "AES", transformation, null);
+			byte[] plain = newData(1024);
+			
+			for(int i = 0; i < 3; i++) {
+				assertArrayEquals(plain, new Crypto(key, "AES", transformation, null).decrypt(warm.encrypt(plain)));
+				assertArrayEquals(plain, warm.decrypt(new Crypto(key, "AES", transformation, null).encrypt(plain)));
+			}
+		}
+	}
+	
+	private static SecretKeySpec newKey(int keySize) {
+		byte[] bytes = new byte[keySize / 8];
+		
+		new Random(keySize).nextBytes(bytes);
+		return new SecretKeySpec(bytes, "AES");
+	}
+	
+	private static byte[] newData(int size) {
+		byte[] data = new byte[size];
+		
+		new Random(size).nextBytes(data);
+		return data;
+	}
+}
@@ -0,0 +1,130 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the worker pool and back pressure of the {@link CryptoService}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class CryptoServiceTest {
+	
+	private static final byte[] DATA = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+	
+	@Test
+	public void encryptsAndDecrypts() throws Exception {
+		CryptoService service = new CryptoService(Crypto.gcm(TestSupport.newKey()), 2, 16);
+		
+		try {
+			byte[] encrypted = service.encrypt(DATA).get(10, TimeUnit.SECONDS);
+			
+			assertArrayEquals(DATA, service.decrypt(encrypted).get(10, TimeUnit.SECONDS));
+			assertArrayEquals(DATA, service.getCrypto().decrypt(encrypted));
+		} finally {
+			service.shutdown();
+		}
+	}
+	
+	@Test
+	public void fullQueueRejectsTasks() throws Exception {
+		BlockingCrypto crypto = new BlockingCrypto(TestSupport.newKey());
+		CryptoService service = new CryptoService(crypto, 1, 1);
+		
+		try {
+			CompletableFuture<byte[]> running = service.encrypt(DATA);
+			crypto.started.await(10, TimeUnit.SECONDS);
+			
+			assertTrue(crypto.thread.startsWith("CFCore-Crypto-"), crypto.thread);
+			
+			CompletableFuture<byte[]> queued = service.encrypt(DATA);
+			CompletableFuture<byte[]> rejected = service.encrypt(DATA);
+			
+			assertTrue(rejected.isCompletedExceptionally());
+			assertEquals(1, service.getRejectedCount());
+			assertEquals(1, service.getQueueDepth());
+			assertEquals(RejectedExecutionException.class, cause(rejected).getClass());
+			
+			crypto.release.countDown();
+			
+			assertArrayEquals(DATA, crypto.decrypt(running.get(10, TimeUnit.SECONDS)));
+			assertArrayEquals(DATA, crypto.decrypt(queued.get(10, TimeUnit.SECONDS)));
+		} finally {
+			crypto.release.countDown();
+			service.shutdown();
+		}
+	}
+	
+	@Test
+	public void shutdownCompletesSubmittedTasks() throws Exception {
+		BlockingCrypto crypto = new BlockingCrypto(TestSupport.newKey());
+		CryptoService service = new CryptoService(crypto, 1, 4);
+		CompletableFuture<byte[]> running = service.encrypt(DATA);
+		CompletableFuture<byte[]> queued = service.encrypt(DATA);
+		
+		crypto.started.await(10, TimeUnit.SECONDS);
+		service.shutdown();
+		
+		assertTrue(service.isShutdown());
+		assertTrue(service.encrypt(DATA).isCompletedExceptionally());
+		
+		crypto.release.countDown();
+		
+		assertTrue(service.shutdown(10, TimeUnit.SECONDS));
+		assertTrue(running.isDone() && queued.isDone());
+		assertArrayEquals(DATA, crypto.decrypt(queued.get()));
+	}
+	
+	private static Throwable cause(CompletableFuture<?> future) throws InterruptedException {
+		try {
+			future.get();
+			return null;
+		} catch (ExecutionException e) {
+			return e.getCause();
+		}
+	}
+	
+/*********************************** CLASS SEPARATOR *************************************/
+	
+	/**
+	 * Crypto whose encryption waits until it's released, which keeps the worker busy.
+	 * 
+	 * @author Sommod
+	 * @version 1.0
+	 * 
+	 */
+	private static final class BlockingCrypto extends Crypto {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		volatile String thread;
+		
+		BlockingCrypto(Key key) { super(key, ALG, GCM, NO_PAD); }
+		
+		@Override
+		public byte[] encrypt(byte[] data) {
+			thread = Thread.currentThread().getName();
+			started.countDown();
+			
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			
+			return super.encrypt(data);
+		}
+	}
+}
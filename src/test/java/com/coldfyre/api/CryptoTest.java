@@ -0,0 +1,438 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the framing, file formats and key derivation of {@link Crypto}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class CryptoTest extends TestSupport {
+	
+	private static final byte[] DATA = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+	private static final int NONCE = 12, TAG = 16;
+	private static final int HEADER = 24, SEGMENT = 7;
+	private static final int MAPPED_TRAILER = 20;
+	private static final int ITERATIONS = 1000;
+	
+	private final Key key = newKey();
+	
+	@Test
+	public void gcmFramesNonceCiphertextAndTag() {
+		Crypto crypto = Crypto.gcm(key);
+		byte[] encrypted = crypto.encrypt(DATA);
+		
+		assertEquals(NONCE + DATA.length + TAG, encrypted.length);
+		assertEquals(encrypted.length, crypto.getEncryptedSize(DATA.length));
+		assertArrayEquals(DATA, crypto.decrypt(encrypted));
+	}
+	
+	@Test
+	public void gcmUsesNewNonceForEachMessage() {
+		Crypto crypto = Crypto.gcm(key);
+		byte[] first = crypto.encrypt(DATA);
+		byte[] second = crypto.encrypt(DATA);
+		
+		assertFalse(Arrays.equals(Arrays.copyOf(first, NONCE), Arrays.copyOf(second, NONCE)));
+		assertArrayEquals(DATA, crypto.decrypt(second));
+	}
+	
+	@Test
+	public void gcmRejectsTamperedNonceCiphertextOrTag() {
+		Crypto crypto = Crypto.gcm(key);
+		byte[] encrypted = crypto.encrypt(DATA);
+		
+		for(int position : new int[] {0, NONCE, encrypted.length - 1}) {
+			byte[] tampered = encrypted.clone();
+			tampered[position] ^= 1;
+			
+			assertEquals(0, crypto.decrypt(tampered).length, "Tampered byte " + position);
+		}
+	}
+	
+	@Test
+	public void gcmRejectsTruncatedData() {
+		Crypto crypto = Crypto.gcm(key);
+		byte[] encrypted = crypto.encrypt(DATA);
+		
+		assertEquals(0, crypto.decrypt(Arrays.copyOf(encrypted, NONCE - 1)).length);
+		assertEquals(0, crypto.decrypt(Arrays.copyOf(encrypted, encrypted.length - 1)).length);
+	}
+	
+	@Test
+	public void gcmRejectsDataShorterThanTag() {
+		Crypto crypto = Crypto.gcm(key);
+		
+		for(int length = NONCE; length < NONCE + TAG; length++) {
+			byte[] encrypted = new byte[length];
+			ByteBuffer src = ByteBuffer.wrap(encrypted);
+			
+			assertEquals(0, crypto.decrypt(encrypted).length);
+			assertEquals(-1, crypto.decrypt(src, ByteBuffer.allocate(TAG)));
+			assertEquals(0, src.position());
+		}
+	}
+	
+	@Test
+	public void gcmRejectsOtherKey() {
+		byte[] encrypted = Crypto.gcm(key).encrypt(DATA);
+		
+		assertEquals(0, Crypto.gcm(newKey()).decrypt(encrypted).length);
+	}
+	
+	@Test
+	public void segmentedFramesHeaderSegmentsAndTags() throws IOException {
+		File input = write("input", DATA);
+		File encrypted = folder.resolve("encrypted").toFile();
+		int segments = (DATA.length + SEGMENT - 1) / SEGMENT;
+		
+		assertTrue(Crypto.gcm(key).encryptSegmented(input, encrypted, SEGMENT));
+		
+		ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(encrypted.toPath()), 0, HEADER);
+		
+		assertEquals(0x43465347, header.getInt());
+		assertEquals(SEGMENT, header.getInt());
+		assertEquals(DATA.length, header.getLong());
+		assertEquals(HEADER + DATA.length + segments * TAG, encrypted.length());
+	}
+	
+	@Test
+	public void segmentedRoundTrip() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File input = write("input", DATA);
+		File encrypted = folder.resolve("encrypted").toFile();
+		File decrypted = folder.resolve("decrypted").toFile();
+		
+		assertTrue(crypto.encryptSegmented(input, encrypted, SEGMENT));
+		assertTrue(crypto.decryptSegmented(encrypted, decrypted));
+		assertArrayEquals(DATA, Files.readAllBytes(decrypted.toPath()));
+	}
+	
+	@Test
+	public void segmentedEmptyFileHasSingleSegment() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File encrypted = folder.resolve("encrypted").toFile();
+		File decrypted = folder.resolve("decrypted").toFile();
+		
+		assertTrue(crypto.encryptSegmented(write("input", new byte[0]), encrypted, SEGMENT));
+		assertEquals(HEADER + TAG, encrypted.length());
+		assertTrue(crypto.decryptSegmented(encrypted, decrypted));
+		assertEquals(0, decrypted.length());
+	}
+	
+	@Test
+	public void segmentedRejectsTamperedSegmentAndKeepsOutput() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File encrypted = folder.resolve("encrypted").toFile();
+		File output = write("output", new byte[] {1, 2, 3});
+		
+		assertTrue(crypto.encryptSegmented(write("input", DATA), encrypted, SEGMENT));
+		
+		// Flips a byte of the second segment
+		try (RandomAccessFile file = new RandomAccessFile(encrypted, "rw")) {
+			file.seek(HEADER + SEGMENT + TAG + 1);
+			int value = file.read();
+			
+			file.seek(HEADER + SEGMENT + TAG + 1);
+			file.write(value ^ 1);
+		}
+		
+		assertFalse(crypto.decryptSegmented(encrypted, output));
+		assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(output.toPath()));
+	}
+	
+	@Test
+	public void segmentedRejectsTruncatedFile() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File encrypted = folder.resolve("encrypted").toFile();
+		
+		assertTrue(crypto.encryptSegmented(write("input", DATA), encrypted, SEGMENT));
+		
+		byte[] bytes = Files.readAllBytes(encrypted.toPath());
+		File truncated = write("truncated", Arrays.copyOf(bytes, bytes.length - TAG - 1));
+		
+		assertFalse(crypto.decryptSegmented(truncated, folder.resolve("decrypted").toFile()));
+	}
+	
+	@Test
+	public void segmentedRejectsHeaderWithInvalidSegmentSize() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER + TAG);
+		header.putInt(0x43465347).putInt(Integer.MAX_VALUE).putLong(0);
+		
+		File crafted = write("crafted", header.array());
+		
+		assertFalse(Crypto.gcm(key).decryptSegmented(crafted, folder.resolve("decrypted").toFile()));
+	}
+	
+	@Test
+	public void segmentedRejectsInvalidSegmentSize() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File input = write("input", DATA);
+		File output = folder.resolve("encrypted").toFile();
+		
+		assertThrows(IllegalArgumentException.class, () -> crypto.encryptSegmented(input, output, 0));
+		assertThrows(IllegalArgumentException.class, () -> crypto.encryptSegmented(input, output, Crypto.MAX_SEGMENT_SIZE + 1));
+	}
+	
+	@Test
+	public void bufferRoundTripWithDirectBuffers() {
+		for(Crypto crypto : new Crypto[] {Crypto.gcm(key), new Crypto(key, "AES")}) {
+			ByteBuffer src = ByteBuffer.allocateDirect(DATA.length).put(DATA).flip();
+			ByteBuffer encrypted = ByteBuffer.allocateDirect(crypto.getEncryptedSize(DATA.length));
+			
+			assertEquals(encrypted.capacity(), crypto.encrypt(src, encrypted));
+			assertEquals(0, src.remaining());
+			
+			ByteBuffer decrypted = ByteBuffer.allocateDirect(crypto.getDecryptedSize(encrypted.capacity()));
+			
+			assertEquals(DATA.length, crypto.decrypt(encrypted.flip(), decrypted));
+			assertArrayEquals(DATA, toArray(decrypted.flip()));
+		}
+	}
+	
+	@Test
+	public void bufferMatchesArrayFraming() {
+		Crypto crypto = Crypto.gcm(key);
+		ByteBuffer encrypted = ByteBuffer.allocate(crypto.getEncryptedSize(DATA.length));
+		
+		crypto.encrypt(ByteBuffer.wrap(DATA), encrypted);
+		
+		assertArrayEquals(DATA, crypto.decrypt(encrypted.array()));
+		assertArrayEquals(DATA, decrypt(crypto, crypto.encrypt(DATA)));
+	}
+	
+	@Test
+	public void bufferEncryptsAndDecryptsInPlace() {
+		Crypto crypto = Crypto.gcm(key);
+		int ivLength = crypto.getIVLength();
+		ByteBuffer memory = ByteBuffer.allocateDirect(crypto.getEncryptedSize(DATA.length));
+		
+		memory.position(ivLength);
+		memory.put(DATA);
+		
+		ByteBuffer src = memory.duplicate().position(ivLength).limit(ivLength + DATA.length);
+		ByteBuffer dst = memory.duplicate().clear();
+		
+		assertEquals(memory.capacity(), crypto.encrypt(src, dst));
+		
+		int length = crypto.decrypt(memory.duplicate().clear(), memory.duplicate().clear());
+		
+		assertEquals(DATA.length, length);
+		assertArrayEquals(DATA, toArray(memory.duplicate().clear().limit(length)));
+	}
+	
+	@Test
+	public void bufferTooSmallKeepsPositions() {
+		Crypto crypto = Crypto.gcm(key);
+		ByteBuffer src = ByteBuffer.wrap(DATA);
+		ByteBuffer dst = ByteBuffer.allocate(crypto.getEncryptedSize(DATA.length) - 1);
+		
+		assertEquals(-1, crypto.encrypt(src, dst));
+		assertEquals(0, src.position());
+		assertEquals(0, dst.position());
+	}
+	
+	@Test
+	public void bufferRejectsTamperedTagAndKeepsPositions() {
+		Crypto crypto = Crypto.gcm(key);
+		byte[] encrypted = crypto.encrypt(DATA);
+		encrypted[encrypted.length - 1] ^= 1;
+		
+		ByteBuffer src = ByteBuffer.wrap(encrypted);
+		ByteBuffer dst = ByteBuffer.allocate(DATA.length);
+		
+		assertEquals(-1, crypto.decrypt(src, dst));
+		assertEquals(0, src.position());
+		assertEquals(0, dst.position());
+	}
+	
+	@Test
+	public void mappedAddsTrailerAndRoundTrips() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File file = write("data.bin", DATA);
+		
+		assertTrue(crypto.encryptMapped(file));
+		assertEquals(DATA.length + MAPPED_TRAILER, file.length());
+		assertFalse(Arrays.equals(DATA, Arrays.copyOf(Files.readAllBytes(file.toPath()), DATA.length)));
+		
+		assertTrue(crypto.decryptMapped(file));
+		assertArrayEquals(DATA, Files.readAllBytes(file.toPath()));
+	}
+	
+	@Test
+	public void mappedRoundTripsAcrossWindows() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		byte[] data = new byte[(5 << 20) / 2 + 3];
+		new SecureRandom().nextBytes(data);
+		
+		File file = write("large.bin", data);
+		
+		assertTrue(crypto.encryptMapped(file));
+		assertTrue(crypto.decryptMapped(file));
+		assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+	}
+	
+	@Test
+	public void mappedEmptyFile() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File file = write("empty.bin", new byte[0]);
+		
+		assertTrue(crypto.encryptMapped(file));
+		assertEquals(MAPPED_TRAILER, file.length());
+		assertTrue(crypto.decryptMapped(file));
+		assertEquals(0, file.length());
+	}
+	
+	@Test
+	public void mappedRejectsPlainFileAndKeepsIt() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File plain = write("plain.bin", DATA);
+		File tiny = write("tiny.bin", new byte[] {1, 2, 3});
+		
+		assertFalse(crypto.decryptMapped(plain));
+		assertArrayEquals(DATA, Files.readAllBytes(plain.toPath()));
+		assertFalse(crypto.decryptMapped(tiny));
+		assertEquals(3, tiny.length());
+	}
+	
+	@Test
+	public void mappedDecryptsOnlyOnce() throws IOException {
+		Crypto crypto = Crypto.gcm(key);
+		File file = write("data.bin", DATA);
+		
+		crypto.encryptMapped(file);
+		
+		assertTrue(crypto.decryptMapped(file));
+		assertFalse(crypto.decryptMapped(file));
+		assertArrayEquals(DATA, Files.readAllBytes(file.toPath()));
+	}
+	
+	@Test
+	public void derivedKeyMatchesPbkdf2() throws GeneralSecurityException {
+		byte[] salt = Crypto.generateSalt();
+		Key derived = Crypto.deriveKey("password", salt, ITERATIONS, 128);
+		byte[] expected = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(new PBEKeySpec("password".toCharArray(), salt, ITERATIONS, 128)).getEncoded();
+		
+		assertEquals("AES", derived.getAlgorithm());
+		assertArrayEquals(expected, derived.getEncoded());
+	}
+	
+	@Test
+	public void derivedKeyIsCachedPerParameters() {
+		byte[] salt = Crypto.generateSalt();
+		Key key = Crypto.deriveKey("password", salt, ITERATIONS);
+		
+		assertSame(key, Crypto.deriveKey("password", salt.clone(), ITERATIONS));
+		assertNotSame(key, Crypto.deriveKey("password", Crypto.generateSalt(), ITERATIONS));
+		assertNotSame(key, Crypto.deriveKey("Password", salt, ITERATIONS));
+		assertNotSame(key, Crypto.deriveKey("password", salt, ITERATIONS + 1));
+		assertNotSame(key, Crypto.deriveKey("password", salt, ITERATIONS, 128));
+	}
+	
+	@Test
+	public void derivedKeyDecryptsAcrossObjects() {
+		byte[] salt = Crypto.generateSalt();
+		byte[] encrypted = new Crypto("password", salt, ITERATIONS).encrypt(DATA);
+		
+		assertArrayEquals(DATA, new Crypto("password", salt, ITERATIONS).decrypt(encrypted));
+	}
+	
+	@Test
+	public void derivedKeyRejectsInvalidParameters() {
+		byte[] salt = Crypto.generateSalt();
+		
+		assertThrows(IllegalArgumentException.class, () -> Crypto.deriveKey("password", salt, 0));
+		assertThrows(IllegalArgumentException.class, () -> Crypto.deriveKey("password", salt, ITERATIONS, 64));
+		assertThrows(IllegalArgumentException.class, () -> Crypto.deriveKey("password", new byte[0], ITERATIONS));
+	}
+	
+	@Test
+	public void batchRoundTripsEveryRecord() {
+		List<byte[]> records = Arrays.asList(DATA, new byte[0], new byte[] {1}, new byte[100]);
+		
+		for(Crypto crypto : new Crypto[] {Crypto.gcm(key), Crypto.gcm(key, true), new Crypto(key, "AES")}) {
+			Crypto.Batch batch = crypto.encryptAll(records);
+			List<byte[]> decrypted = crypto.decryptAll(batch);
+			
+			assertEquals(records.size(), batch.size());
+			assertEquals(batch.getData().length, batch.getOffset(batch.size()));
+			
+			for(int i = 0; i < records.size(); i++) {
+				assertEquals(crypto.getEncryptedSize(records.get(i).length), batch.get(i).length);
+				assertArrayEquals(records.get(i), decrypted.get(i));
+			}
+		}
+	}
+	
+	@Test
+	public void batchRecordDecryptsOnItsOwn() {
+		Crypto crypto = Crypto.gcm(key);
+		Crypto.Batch batch = crypto.encryptAll(Arrays.asList(new byte[] {1, 2}, DATA));
+		
+		assertArrayEquals(DATA, crypto.decrypt(batch.get(1)));
+		assertFalse(Arrays.equals(Arrays.copyOf(batch.get(0), NONCE), Arrays.copyOf(batch.get(1), NONCE)));
+	}
+	
+	@Test
+	public void batchTamperedRecordOnlyFailsItself() {
+		Crypto crypto = Crypto.gcm(key);
+		Crypto.Batch batch = crypto.encryptAll(Arrays.asList(DATA, DATA, DATA));
+		
+		batch.getData()[batch.getOffset(1) + NONCE] ^= 1;
+		
+		List<byte[]> decrypted = crypto.decryptAll(batch);
+		
+		assertArrayEquals(DATA, decrypted.get(0));
+		assertEquals(0, decrypted.get(1).length);
+		assertArrayEquals(DATA, decrypted.get(2));
+	}
+	
+	@Test
+	public void batchWithoutRecords() {
+		Crypto crypto = Crypto.gcm(key);
+		Crypto.Batch batch = crypto.encryptAll(Collections.<byte[]>emptyList());
+		
+		assertEquals(0, batch.size());
+		assertTrue(crypto.decryptAll(batch).isEmpty());
+	}
+	
+	private static byte[] decrypt(Crypto crypto, byte[] encrypted) {
+		ByteBuffer decrypted = ByteBuffer.allocate(crypto.getDecryptedSize(encrypted.length));
+		
+		crypto.decrypt(ByteBuffer.wrap(encrypted), decrypted);
+		return toArray(decrypted.flip());
+	}
+	
+	private static byte[] toArray(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		
+		buffer.get(bytes);
+		return bytes;
+	}
+}
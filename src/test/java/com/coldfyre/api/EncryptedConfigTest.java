@@ -0,0 +1,121 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.Key;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of reading, saving and protecting the file of an {@link EncryptedConfig}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class EncryptedConfigTest extends TestSupport {
+	
+	@Test
+	public void missingFileIsReadableAndEmpty() {
+		EncryptedConfig config = open(new File(folder.toFile(), "secret.yml"), Crypto.gcm(newKey()));
+		
+		assertTrue(config.isReadable());
+		assertTrue(config.getYamlConfiguration().getKeys(false).isEmpty());
+	}
+	
+	@Test
+	public void savedFileIsEncryptedAndReloads() throws IOException {
+		Key key = newKey();
+		File file = new File(folder.toFile(), "secret.yml");
+		EncryptedConfig config = open(file, Crypto.gcm(key));
+		
+		config.set("token", "hunter2");
+		config.set("limits.daily", 25);
+		assertTrue(config.save());
+		
+		String stored = new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+		
+		assertFalse(stored.contains("hunter2"));
+		assertFalse(stored.contains("token"));
+		
+		EncryptedConfig reopened = open(file, Crypto.gcm(key));
+		
+		assertTrue(reopened.isReadable());
+		assertEquals("hunter2", reopened.getYamlConfiguration().getString("token"));
+		assertEquals(25, reopened.getYamlConfiguration().getInt("limits.daily"));
+	}
+	
+	@Test
+	public void wrongKeyIsUnreadableAndNotOverwritten() throws IOException {
+		File file = new File(folder.toFile(), "secret.yml");
+		EncryptedConfig config = open(file, Crypto.gcm(newKey()));
+		
+		config.set("token", "hunter2");
+		assertTrue(config.save());
+		
+		byte[] stored = Files.readAllBytes(file.toPath());
+		EncryptedConfig other = open(file, Crypto.gcm(newKey()));
+		
+		assertFalse(other.isReadable());
+		assertNull(other.getYamlConfiguration().get("token"));
+		
+		other.set("token", "replaced");
+		
+		assertFalse(other.save());
+		assertFalse(other.isReadable());
+		assertArrayEquals(stored, Files.readAllBytes(file.toPath()));
+	}
+	
+	@Test
+	public void tamperedFileIsUnreadable() throws IOException {
+		Key key = newKey();
+		File file = new File(folder.toFile(), "secret.yml");
+		EncryptedConfig config = open(file, Crypto.gcm(key));
+		
+		config.set("token", "hunter2");
+		assertTrue(config.save());
+		
+		byte[] data = Files.readAllBytes(file.toPath());
+		
+		data[data.length / 2] ^= 1;
+		write("secret.yml", data);
+		
+		EncryptedConfig reopened = open(file, Crypto.gcm(key));
+		
+		assertFalse(reopened.isReadable());
+		assertFalse(reopened.save());
+		assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+	}
+	
+	@Test
+	public void failedReloadKeepsDecryptedData() throws IOException {
+		Key key = newKey();
+		File file = new File(folder.toFile(), "secret.yml");
+		EncryptedConfig config = open(file, Crypto.gcm(key));
+		
+		config.set("token", "hunter2");
+		assertTrue(config.save());
+		
+		write("secret.yml", "token: plain\n");
+		
+		assertFalse(config.reload());
+		assertTrue(config.isReadable());
+		assertEquals("hunter2", config.getYamlConfiguration().getString("token"));
+	}
+	
+	private static EncryptedConfig open(File file, Crypto crypto) {
+		EncryptedConfig config = new EncryptedConfig(file, crypto) {};
+		
+		// Saves only when the test asks for it
+		config.setSaveInterval(Long.MAX_VALUE / 2);
+		return config;
+	}
+}
@@ -0,0 +1,132 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.util.zip.CRC32C;
+
+import javax.crypto.Mac;
+
+import org.junit.jupiter.api.Test;
+
+import com.coldfyre.api.FileDigest.Algorithm;
+
+/**
+ * Tests of the results of {@link FileDigest}, and of when its cache is used. The files are hashed
+ * directly, as such no FilesManager is needed.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class FileDigestTest extends TestSupport {
+	
+	private static final long TIME = 1_600_000_000_000L;
+	private static final byte[] DATA = "resource pack".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] TAMPERED = "resource hack".getBytes(StandardCharsets.UTF_8);
+	
+	@Test
+	public void digestsMatchTheJdk() throws IOException, GeneralSecurityException {
+		FileDigest digest = newDigest();
+		File file = write("pack.zip", DATA);
+		Key key = newKey();
+		CRC32C crc = new CRC32C();
+		Mac mac = Mac.getInstance("HmacSHA256");
+		
+		crc.update(DATA);
+		mac.init(key);
+		
+		assertEquals(crc.getValue(), Long.parseLong(FileDigest.toHex(digest.digest(file, Algorithm.CRC32C, null)), 16));
+		assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(DATA), digest.digest(file, Algorithm.SHA256, null));
+		assertArrayEquals(mac.doFinal(DATA), digest.digest(file, Algorithm.HMAC_SHA256, key));
+	}
+	
+	@Test
+	public void tamperedFileWithSameSizeAndTimeIsHashedAgain() throws IOException {
+		FileDigest digest = newDigest();
+		File file = write("pack.zip", DATA, TIME);
+		byte[] expected = digest.digest(file, Algorithm.SHA256, null);
+		
+		write("pack.zip", TAMPERED, TIME);
+		
+		assertFalse(MessageDigest.isEqual(expected, digest.digest(file, Algorithm.SHA256, null)));
+	}
+	
+	@Test
+	public void verifyIgnoresTheCache() throws IOException {
+		FileDigest digest = newDigest();
+		File file = write("pack.zip", DATA, TIME);
+		byte[] expected = digest.digest(file, Algorithm.SHA256, null, true);
+		
+		assertTrue(digest.save());
+		
+		write("pack.zip", TAMPERED, TIME);
+		
+		// Both the digest in memory and the one saved are only trusted when asked for
+		assertArrayEquals(expected, digest.digest(file, Algorithm.SHA256, null, true));
+		assertArrayEquals(expected, newDigest().digest(file, Algorithm.SHA256, null, true));
+		assertFalse(digest.verify(file, Algorithm.SHA256, null, expected));
+		assertFalse(newDigest().verify(file, Algorithm.SHA256, null, expected));
+	}
+	
+	@Test
+	public void cacheIsUsedWhenAskedForUnchangedFile() throws IOException {
+		FileDigest digest = newDigest();
+		File file = write("pack.zip", DATA, TIME);
+		byte[] expected = digest.digest(file, Algorithm.CRC32C, null);
+		
+		assertTrue(digest.save());
+		assertArrayEquals(expected, newDigest().digest(file, Algorithm.CRC32C, null, true));
+		
+		// A new size or time is hashed again
+		write("pack.zip", TAMPERED, TIME + 1000);
+		
+		assertFalse(MessageDigest.isEqual(expected, digest.digest(file, Algorithm.CRC32C, null, true)));
+	}
+	
+	@Test
+	public void hmacIsNeverCached() throws IOException {
+		FileDigest digest = newDigest();
+		File file = write("pack.zip", DATA, TIME);
+		Key key = newKey();
+		byte[] expected = digest.digest(file, Algorithm.HMAC_SHA256, key, true);
+		
+		assertTrue(digest.save());
+		assertFalse(new String(Files.readAllBytes(cacheFile().toPath()), StandardCharsets.ISO_8859_1).contains(Algorithm.HMAC_SHA256.name()));
+		
+		write("pack.zip", TAMPERED, TIME);
+		
+		assertFalse(MessageDigest.isEqual(expected, digest.digest(file, Algorithm.HMAC_SHA256, key, true)));
+	}
+	
+	@Test
+	public void editedCacheIsHashedAgain() throws IOException {
+		File file = write("pack.zip", DATA, TIME);
+		byte[] expected = newDigest().digest(file, Algorithm.SHA256, null);
+		String stamp = DATA.length + ":" + TIME + ":";
+		
+		Files.write(cacheFile().toPath(), ("SHA256\\:" + file.getAbsolutePath().replace("\\", "\\\\").replace(":", "\\:") + "=" + stamp + "zz\n").getBytes(StandardCharsets.ISO_8859_1));
+		
+		assertArrayEquals(expected, newDigest().digest(file, Algorithm.SHA256, null, true));
+	}
+	
+	private FileDigest newDigest() { return new FileDigest(null, cacheFile()); }
+	
+	private File cacheFile() { return folder.resolve("digests.cache").toFile(); }
+	
+	private File write(String name, byte[] data, long time) throws IOException {
+		File file = write(name, data);
+		
+		assertTrue(file.setLastModified(time));
+		return file;
+	}
+}
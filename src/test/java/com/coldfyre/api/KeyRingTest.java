@@ -0,0 +1,144 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the key version header and the rotation of the {@link KeyRing}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class KeyRingTest extends TestSupport {
+	
+	private static final byte[] DATA = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+	private static final int HEADER = 6;
+	
+	@Test
+	public void encryptStartsWithVersionHeader() {
+		KeyRing ring = new KeyRing();
+		ring.addKey(7, newKey());
+		
+		byte[] encrypted = ring.encrypt(DATA);
+		ByteBuffer header = ByteBuffer.wrap(encrypted, 0, HEADER);
+		
+		assertEquals((short) 0x434B, header.getShort());
+		assertEquals(7, header.getInt());
+		assertEquals(7, KeyRing.getVersion(encrypted));
+		assertArrayEquals(DATA, ring.decrypt(encrypted));
+	}
+	
+	@Test
+	public void getVersionWithoutHeader() {
+		assertEquals(-1, KeyRing.getVersion(null));
+		assertEquals(-1, KeyRing.getVersion(new byte[HEADER - 1]));
+		assertEquals(-1, KeyRing.getVersion(DATA));
+	}
+	
+	@Test
+	public void rotateKeepsOlderVersions() {
+		KeyRing ring = new KeyRing();
+		ring.addKey(0, newKey());
+		
+		byte[] old = ring.encrypt(DATA);
+		
+		assertEquals(1, ring.rotate(newKey()));
+		assertEquals(1, ring.getCurrentVersion());
+		assertFalse(ring.isCurrent(old));
+		assertArrayEquals(DATA, ring.decrypt(old));
+		assertTrue(ring.isCurrent(ring.encrypt(DATA)));
+	}
+	
+	@Test
+	public void currentKeyCannotBeRemoved() {
+		KeyRing ring = new KeyRing();
+		ring.addKey(0, newKey());
+		ring.rotate(newKey());
+		
+		assertFalse(ring.removeKey(1));
+		assertTrue(ring.removeKey(0));
+		assertFalse(ring.addKey(1, newKey()));
+	}
+	
+	@Test
+	public void decryptWithUnknownVersion() {
+		KeyRing ring = new KeyRing();
+		ring.addKey(0, newKey());
+		
+		byte[] encrypted = ring.encrypt(DATA);
+		ring.rotate(newKey());
+		ring.removeKey(0);
+		
+		assertEquals(0, ring.decrypt(encrypted).length);
+		assertEquals(0, ring.decrypt(DATA).length);
+	}
+	
+	@Test
+	public void decryptRejectsTamperedVersion() {
+		KeyRing ring = new KeyRing();
+		ring.addKey(0, newKey());
+		ring.addKey(1, newKey());
+		
+		byte[] encrypted = ring.encrypt(DATA);
+		encrypted[HEADER - 1] = 1;
+		
+		assertEquals(0, ring.decrypt(encrypted).length);
+	}
+	
+	@Test
+	public void reencryptRotatesOnce() throws IOException {
+		KeyRing ring = new KeyRing();
+		ring.addKey(0, newKey());
+		
+		File file = folder.resolve("data.bin").toFile();
+		
+		assertTrue(ring.encryptToFile(DATA, file));
+		assertEquals(KeyRing.Result.CURRENT, ring.reencrypt(file));
+		
+		ring.rotate(newKey());
+		
+		assertEquals(KeyRing.Result.ROTATED, ring.reencrypt(file));
+		assertEquals(1, KeyRing.getVersion(Files.readAllBytes(file.toPath())));
+		assertEquals(KeyRing.Result.CURRENT, ring.reencrypt(file));
+		assertArrayEquals(DATA, ring.decrypt(file));
+	}
+	
+	@Test
+	public void reencryptUnknownKey() throws IOException {
+		KeyRing ring = new KeyRing();
+		ring.addKey(0, newKey());
+		
+		File file = write("plain.bin", DATA);
+		
+		assertEquals(KeyRing.Result.UNKNOWN_KEY, ring.reencrypt(file));
+		assertArrayEquals(DATA, Files.readAllBytes(file.toPath()));
+	}
+	
+	@Test
+	public void decryptAndUpgradeRewritesOlderVersion() throws IOException {
+		KeyRing ring = new KeyRing();
+		ring.addKey(0, newKey());
+		
+		File file = folder.resolve("data.bin").toFile();
+		ring.encryptToFile(DATA, file);
+		ring.rotate(newKey());
+		
+		assertArrayEquals(DATA, ring.decryptAndUpgrade(file));
+		
+		byte[] upgraded = Files.readAllBytes(file.toPath());
+		
+		assertTrue(ring.isCurrent(upgraded));
+		assertArrayEquals(DATA, ring.decrypt(upgraded));
+	}
+}
@@ -0,0 +1,127 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the counts and completion of a {@link KeyRotation}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class KeyRotationTest extends TestSupport {
+	
+	private static final byte[] DATA = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+	
+	@Test
+	public void rotatesAndSkipsFiles() throws Exception {
+		KeyRing ring = new KeyRing();
+		ring.addKey(0, newKey());
+		
+		List<File> files = newFiles(ring, 5);
+		
+		ring.rotate(newKey());
+		ring.encryptToFile(DATA, files.get(4));
+		
+		KeyRotation rotation = newRotation(ring, files);
+		
+		rotation.start().get(10, TimeUnit.SECONDS);
+		
+		assertEquals(4, rotation.getRotated());
+		assertEquals(1, rotation.getSkipped());
+		assertEquals(0, rotation.getFailed());
+		assertEquals(0, rotation.getRemaining());
+		
+		for(File file : files) {
+			assertTrue(ring.isCurrent(Files.readAllBytes(file.toPath())));
+			assertArrayEquals(DATA, ring.decrypt(file));
+		}
+	}
+	
+	@Test
+	public void throwingFileIsCountedAsFailed() throws Exception {
+		KeyRing ring = new KeyRing() {
+			
+			@Override
+			public Result reencrypt(File file) {
+				if(file.getName().equals("file-1"))
+					throw new IllegalStateException("Test failure");
+				
+				return super.reencrypt(file);
+			}
+		};
+		
+		ring.addKey(0, newKey());
+		
+		List<File> files = newFiles(ring, 4);
+		
+		ring.rotate(newKey());
+		
+		KeyRotation rotation = newRotation(ring, files);
+		
+		rotation.start().get(10, TimeUnit.SECONDS);
+		
+		assertEquals(3, rotation.getRotated());
+		assertEquals(1, rotation.getFailed());
+		assertEquals(0, rotation.getRemaining());
+	}
+	
+	@Test
+	public void failedBatchCompletesExceptionally() throws Exception {
+		Error error = new AssertionError("Test failure");
+		KeyRing ring = new KeyRing() {
+			
+			@Override
+			public Result reencrypt(File file) { throw error; }
+		};
+		
+		ring.addKey(0, newKey());
+		
+		KeyRotation rotation = newRotation(ring, newFiles(ring, 3));
+		ExecutionException thrown = assertThrows(ExecutionException.class, () -> rotation.start().get(10, TimeUnit.SECONDS));
+		
+		assertSame(error, thrown.getCause());
+		assertTrue(rotation.isDone());
+	}
+	
+	@Test
+	public void emptyRotationCompletes() throws Exception {
+		KeyRotation rotation = newRotation(new KeyRing(), new ArrayList<File>());
+		
+		rotation.start().get(10, TimeUnit.SECONDS);
+		
+		assertTrue(rotation.isDone());
+		assertEquals(0, rotation.getTotal());
+	}
+	
+	private List<File> newFiles(KeyRing ring, int count) {
+		List<File> files = new ArrayList<File>();
+		
+		for(int i = 0; i < count; i++) {
+			File file = folder.resolve("file-" + i).toFile();
+			
+			assertTrue(ring.encryptToFile(DATA, file));
+			files.add(file);
+		}
+		
+		return files;
+	}
+	
+	private static KeyRotation newRotation(KeyRing ring, List<File> files) {
+		return new KeyRotation(ring, files).setBatchSize(2).setBatchDelay(0, TimeUnit.MILLISECONDS).setMaxBytesPerSecond(0);
+	}
+}
@@ -0,0 +1,135 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the merged view of a {@link LayeredConfig} and when it's merged again.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class LayeredConfigTest extends TestSupport {
+	
+	@Test
+	public void higherLayerOverrides() throws IOException, InvalidConfigurationException {
+		LayeredConfig config = new LayeredConfig(yaml("a: 1\nb: 2\nlist:\n- x\n- y\n")).addLayer(layer("global.yml", "a: 3\nlist:\n- z\n"));
+		
+		assertEquals(3, config.getInt("a", 0));
+		assertEquals(2, config.getInt("b", 0));
+		assertEquals(Arrays.asList("z"), config.getStringList("list"));
+		assertEquals("none", config.getString("missing", "none"));
+		assertEquals(1, config.getLayerCount());
+	}
+	
+	@Test
+	public void setInvalidatesView() throws IOException, InvalidConfigurationException {
+		AbstractConfig layer = layer("global.yml", "a: 1\n");
+		LayeredConfig config = new LayeredConfig(null).addLayer(layer);
+		
+		assertEquals(1, config.getInt("a", 0));
+		
+		layer.set("a", 2);
+		
+		assertEquals(2, config.getInt("a", 0));
+	}
+	
+	@Test
+	public void markDirtyInvalidatesView() throws IOException, InvalidConfigurationException {
+		AbstractConfig layer = layer("global.yml", "a: 1\n");
+		LayeredConfig config = new LayeredConfig(null).addLayer(layer);
+		
+		assertEquals(1, config.getInt("a", 0));
+		
+		// Changing the YamlConfiguration directly is only seen once the config is marked
+		layer.getYamlConfiguration().set("a", 2);
+		
+		assertEquals(1, config.getInt("a", 0));
+		
+		layer.markDirty();
+		
+		assertEquals(2, config.getInt("a", 0));
+	}
+	
+	@Test
+	public void reloadInvalidatesView() throws IOException, InvalidConfigurationException {
+		AbstractConfig layer = layer("global.yml", "a: 1\n");
+		LayeredConfig config = new LayeredConfig(null).addLayer(layer);
+		
+		assertEquals(1, config.getInt("a", 0));
+		
+		write("global.yml", "a: 2\n");
+		
+		assertTrue(layer.reload());
+		assertEquals(2, config.getInt("a", 0));
+	}
+	
+	@Test
+	public void valueReplacesSectionAndChildren() throws IOException, InvalidConfigurationException {
+		LayeredConfig config = new LayeredConfig(yaml("section:\n  x: 1\n  inner:\n    y: 2\n")).addLayer(layer("global.yml", "section: 5\n"));
+		
+		assertEquals(5, config.getInt("section", 0));
+		assertFalse(config.contains("section.x"));
+		assertFalse(config.contains("section.inner"));
+		assertFalse(config.contains("section.inner.y"));
+	}
+	
+	@Test
+	public void sectionReplacesValue() throws IOException, InvalidConfigurationException {
+		LayeredConfig config = new LayeredConfig(yaml("a: 1\n")).addLayer(layer("global.yml", "a:\n  b: 2\n"));
+		
+		assertTrue(config.contains("a"));
+		assertNull(config.get("a"));
+		assertEquals(2, config.getInt("a.b", 0));
+	}
+	
+	@Test
+	public void derivedConfigSharesLowerLayers() throws IOException, InvalidConfigurationException {
+		AbstractConfig global = layer("global.yml", "a: 1\nb: 1\n");
+		LayeredConfig config = new LayeredConfig(null).addLayer(global);
+		LayeredConfig nether = config.derive(layer("nether.yml", "b: 2\n"));
+		
+		assertEquals(1, config.getInt("b", 0));
+		assertEquals(2, nether.getInt("b", 0));
+		assertEquals(2, nether.getLayerCount());
+		
+		global.set("a", 3);
+		
+		assertEquals(3, config.getInt("a", 0));
+		assertEquals(3, nether.getInt("a", 0));
+	}
+	
+	@Test
+	public void closeStopsFollowingLayers() throws IOException, InvalidConfigurationException {
+		AbstractConfig layer = layer("global.yml", "a: 1\n");
+		LayeredConfig config = new LayeredConfig(null).addLayer(layer);
+		
+		assertEquals(1, config.getInt("a", 0));
+		
+		config.close();
+		layer.set("a", 2);
+		
+		assertEquals(1, config.getInt("a", 0));
+	}
+	
+	private static YamlConfiguration yaml(String content) throws InvalidConfigurationException {
+		YamlConfiguration config = new YamlConfiguration();
+		config.loadFromString(content);
+		
+		return config;
+	}
+	
+	private AbstractConfig layer(String name, String content) throws IOException {
+		return new AbstractConfig(write(name, content)) {};
+	}
+}
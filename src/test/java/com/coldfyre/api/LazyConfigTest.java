@@ -0,0 +1,96 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the index of a {@link LazyConfig}, and of how its sections are parsed and cached.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class LazyConfigTest extends TestSupport {
+	
+	private static final String YAML = "# Regions\nspawn:\n  size: 1\n  owner: a\n\nshop:\n  size: 2\n'world.nether':\n  size: 3\n\"arena\": {size: 4}\n";
+	
+	@Test
+	public void keysAreIndexedWithoutParsing() throws IOException {
+		LazyConfig config = open(write("regions.yml", YAML), 10);
+		
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("spawn", "shop", "world.nether", "arena")), config.getKeys());
+		assertTrue(config.contains("world.nether"));
+		assertFalse(config.contains("size"));
+		assertEquals(0, config.getCachedCount());
+	}
+	
+	@Test
+	public void sectionsAreParsedOnUse() throws IOException {
+		LazyConfig config = open(write("regions.yml", YAML), 10);
+		
+		assertEquals(1, config.get("spawn.size"));
+		assertEquals("a", config.get("spawn.owner"));
+		assertEquals(2, config.getSection("shop").getInt("size"));
+		assertEquals(4, config.get("arena.size"));
+		assertNull(config.get("missing.size"));
+		assertNull(config.getSection("missing"));
+		assertEquals(3, config.getCachedCount());
+	}
+	
+	@Test
+	public void quotedKeysWithDotsAreFound() throws IOException {
+		LazyConfig config = open(write("regions.yml", "world:\n  size: 1\n" + YAML), 10);
+		
+		assertEquals(3, config.get("world.nether.size"));
+		assertEquals(1, config.get("world.size"));
+		assertEquals(3, config.getSection("world.nether").getInt("size"));
+		assertNull(config.get("world.end.size"));
+	}
+	
+	@Test
+	public void cacheKeepsMostRecentSections() throws IOException {
+		LazyConfig config = open(write("regions.yml", YAML), 2);
+		
+		config.get("spawn.size");
+		config.get("shop.size");
+		config.get("spawn.size");
+		config.get("arena.size");
+		
+		assertEquals(2, config.getCachedCount());
+		assertEquals(1, config.get("spawn.size"));
+		assertEquals(2, config.getCachedCount());
+	}
+	
+	@Test
+	public void changedFileIsScannedAgain() throws IOException {
+		File file = write("regions.yml", YAML);
+		LazyConfig config = open(file, 10);
+		
+		assertEquals(1, config.get("spawn.size"));
+		
+		write(file.getName(), YAML + "lobby:\n  size: 5\n");
+		
+		assertEquals(5, config.get("lobby.size"));
+		assertTrue(config.contains("lobby"));
+		assertEquals(1, config.getCachedCount());
+	}
+	
+	@Test
+	public void missingFileIsEmpty() {
+		LazyConfig config = open(folder.resolve("missing.yml").toFile(), 10);
+		
+		assertTrue(config.getKeys().isEmpty());
+		assertNull(config.get("spawn.size"));
+	}
+	
+	private static LazyConfig open(File file, int maxSections) { return new LazyConfig(file, maxSections) {}; }
+}
@@ -0,0 +1,100 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the nonces made by the {@link NonceGenerator}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class NonceGeneratorTest {
+	
+	private static final int NONCE = 12;
+	
+	@Test
+	public void counterNonceKeepsPrefixAndCounts() {
+		byte[] first = new byte[NONCE];
+		byte[] second = new byte[NONCE];
+		
+		NonceGenerator.nextCounterNonce(first, 0);
+		NonceGenerator.nextCounterNonce(second, 0);
+		
+		assertArrayEquals(Arrays.copyOf(first, 8), Arrays.copyOf(second, 8));
+		assertEquals(ByteBuffer.wrap(first, 8, 4).getInt() + 1, ByteBuffer.wrap(second, 8, 4).getInt());
+	}
+	
+	@Test
+	public void counterNonceWritesAtOffset() {
+		byte[] bytes = new byte[NONCE + 4];
+		
+		NonceGenerator.nextCounterNonce(bytes, 4);
+		
+		assertArrayEquals(new byte[4], Arrays.copyOf(bytes, 4));
+	}
+	
+	@Test
+	public void counterNoncesAreUniqueAcrossThreads() {
+		Set<ByteBuffer> nonces = ConcurrentHashMap.newKeySet();
+		
+		IntStream.range(0, 40_000).parallel().forEach(i -> {
+			byte[] nonce = new byte[NONCE];
+			NonceGenerator.nextCounterNonce(nonce, 0);
+			
+			assertTrue(nonces.add(ByteBuffer.wrap(nonce)), "Repeated nonce");
+		});
+		
+		assertEquals(40_000, nonces.size());
+	}
+	
+	@Test
+	public void counterNonceGcmRoundTrip() {
+		Crypto crypto = Crypto.gcm(TestSupport.newKey(), true);
+		Set<ByteBuffer> nonces = new HashSet<ByteBuffer>();
+		byte[] data = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+		
+		for(int i = 0; i < 1000; i++) {
+			byte[] encrypted = crypto.encrypt(data);
+			
+			assertTrue(nonces.add(ByteBuffer.wrap(Arrays.copyOf(encrypted, NONCE))), "Repeated nonce");
+			assertArrayEquals(data, crypto.decrypt(encrypted));
+		}
+	}
+	
+	@Test
+	public void nextBytesFillsOnlyTheRange() {
+		byte[] bytes = new byte[64];
+		
+		NonceGenerator.nextBytes(bytes, 16, 32);
+		
+		assertArrayEquals(new byte[16], Arrays.copyOf(bytes, 16));
+		assertArrayEquals(new byte[16], Arrays.copyOfRange(bytes, 48, 64));
+		assertFalse(Arrays.equals(new byte[32], Arrays.copyOfRange(bytes, 16, 48)));
+	}
+	
+	@Test
+	public void nextIntStaysWithinBound() {
+		for(int i = 0; i < 1000; i++) {
+			int value = NonceGenerator.nextInt(93);
+			
+			assertTrue(value >= 0 && value < 93, "Out of bound: " + value);
+		}
+		
+		assertThrows(IllegalArgumentException.class, () -> NonceGenerator.nextInt(0));
+	}
+}
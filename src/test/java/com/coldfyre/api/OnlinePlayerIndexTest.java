@@ -0,0 +1,168 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the sorted insert, remove and prefix search of the {@link OnlinePlayerIndex}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class OnlinePlayerIndexTest {
+	
+	private static OnlinePlayerIndex listener;
+	
+	private final List<Player> joined = new ArrayList<Player>();
+	
+	@BeforeAll
+	public static void getListener() throws ReflectiveOperationException {
+		Field instance = OnlinePlayerIndex.class.getDeclaredField("INSTANCE");
+		instance.setAccessible(true);
+		
+		listener = (OnlinePlayerIndex) instance.get(null);
+	}
+	
+	@AfterEach
+	public void quitAll() {
+		for(Player player : new ArrayList<Player>(joined))
+			quit(player);
+	}
+	
+	@Test
+	public void joinKeepsNamesSorted() {
+		join("charlie");
+		join("Alice");
+		join("bob");
+		
+		assertEquals(3, OnlinePlayerIndex.size());
+		assertEquals(Arrays.asList("Alice", "bob", "charlie"), OnlinePlayerIndex.getNames(""));
+	}
+	
+	@Test
+	public void prefixFindsOnlyMatchingRange() {
+		join("Steve");
+		join("Bob");
+		join("stella");
+		join("Sam");
+		join("Stu");
+		
+		assertEquals(Arrays.asList("stella", "Steve"), OnlinePlayerIndex.getNames("ste"));
+		assertEquals(Arrays.asList("stella", "Steve", "Stu"), OnlinePlayerIndex.getNames("ST"));
+		assertEquals(Collections.emptyList(), OnlinePlayerIndex.getNames("x"));
+		assertEquals(Collections.emptyList(), OnlinePlayerIndex.getNames("stevens"));
+	}
+	
+	@Test
+	public void getPlayersReturnsSamePlayers() {
+		Player sam = join("Sam");
+		Player steve = join("Steve");
+		join("Bob");
+		
+		List<Player> players = OnlinePlayerIndex.getPlayers("S");
+		
+		assertEquals(2, players.size());
+		assertSame(sam, players.get(0));
+		assertSame(steve, players.get(1));
+		
+		List<Player> added = new ArrayList<Player>();
+		OnlinePlayerIndex.addPlayers("st", added);
+		
+		assertEquals(Collections.singletonList(steve), added);
+	}
+	
+	@Test
+	public void quitRemovesOnlyThatPlayer() {
+		Player first = join("Alex");
+		Player second = join("alex");
+		join("Bob");
+		
+		quit(second);
+		
+		assertEquals(Arrays.asList("Alex", "Bob"), OnlinePlayerIndex.getNames(""));
+		assertSame(first, OnlinePlayerIndex.getPlayers("alex").get(0));
+		
+		// A player that is not within the index is ignored
+		listener.onQuit(new PlayerQuitEvent(player("Alex"), null));
+		
+		assertEquals(2, OnlinePlayerIndex.size());
+	}
+	
+	@Test
+	public void namesIgnoreDefaultLocale() {
+		Locale locale = Locale.getDefault();
+		
+		try {
+			Locale.setDefault(new Locale("tr", "TR"));
+			join("Ian");
+			
+			assertEquals(Collections.singletonList("Ian"), OnlinePlayerIndex.getNames("i"));
+			assertEquals(Collections.singletonList("Ian"), OnlinePlayerIndex.getNames("I"));
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+	
+	@Test
+	public void notRegisteredWithoutOwner() {
+		assertFalse(OnlinePlayerIndex.isRegistered());
+	}
+	
+	@Test
+	public void emptyAfterEveryPlayerQuits() {
+		quit(join("Alice"));
+		
+		assertEquals(0, OnlinePlayerIndex.size());
+		assertTrue(OnlinePlayerIndex.getNames("").isEmpty());
+	}
+	
+	private Player join(String name) {
+		Player player = player(name);
+		
+		listener.onJoin(new PlayerJoinEvent(player, null));
+		joined.add(player);
+		
+		return player;
+	}
+	
+	private void quit(Player player) {
+		listener.onQuit(new PlayerQuitEvent(player, null));
+		joined.remove(player);
+	}
+	
+	// Creates a player that only has a name
+	private static Player player(String name) {
+		return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] {Player.class}, (proxy, method, args) -> {
+			switch(method.getName()) {
+			case "getName":
+				return name;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "toString":
+				return name;
+			default:
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+}
@@ -0,0 +1,131 @@
+package com.coldfyre.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.command.TabCompleter;
+import org.junit.jupiter.api.Test;
+
+import com.coldfyre.api.TabCompleterBuilder.Players;
+
+/**
+ * Tests of the prefix lookup of the TabCompleter made by the {@link TabCompleterBuilder}.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+public class TabCompleterBuilderTest {
+	
+	@Test
+	public void findsOptionsStartingWithPrefix() {
+		TabCompleter completer = shop().build();
+		
+		assertEquals(Arrays.asList("balance", "Browse", "buy", "Buy2"), complete(completer, "b"));
+		assertEquals(Arrays.asList("buy", "Buy2"), complete(completer, "bu"));
+		assertEquals(Arrays.asList("sell"), complete(completer, "sell"));
+		assertEquals(Arrays.asList("balance", "Browse", "buy", "Buy2", "sell"), complete(completer, ""));
+	}
+	
+	@Test
+	public void prefixIgnoresCase() {
+		TabCompleter completer = shop().build();
+		
+		assertEquals(Arrays.asList("balance", "Browse", "buy", "Buy2"), complete(completer, "B"));
+		assertEquals(Arrays.asList("buy", "Buy2"), complete(completer, "BU"));
+	}
+	
+	@Test
+	public void noMatchIsEmptyButNoOptionsIsNull() {
+		TabCompleter completer = shop().build();
+		
+		assertEquals(Collections.emptyList(), complete(completer, "x"));
+		assertEquals(Collections.emptyList(), complete(completer, "sellx"));
+		assertNull(complete(completer, "balance", ""));
+		assertNull(completer.onTabComplete(null, null, "shop", new String[0]));
+	}
+	
+	@Test
+	public void argumentUsesOptionsOfPreviousArgument() {
+		TabCompleterBuilder builder = shop();
+		builder.addTabOption(1, "buy", "diamond");
+		builder.addTabOption(1, "buy", "dirt");
+		builder.addTabOption(1, "buy", "stone");
+		
+		TabCompleter completer = builder.build();
+		
+		assertEquals(Arrays.asList("diamond", "dirt"), complete(completer, "buy", "di"));
+		assertEquals(Arrays.asList("stone"), complete(completer, "buy", "S"));
+	}
+	
+	@Test
+	public void baseCommandIgnoresCase() {
+		TabCompleterBuilder builder = new TabCompleterBuilder("Shop");
+		builder.addTabOption(0, "SHOP", "buy");
+		builder.addTabOption(0, "shop", "sell");
+		
+		assertTrue(builder.hasTabOptions(0, "shop", "buy"));
+		assertEquals(Arrays.asList("buy", "sell"), complete(builder.build(), ""));
+	}
+	
+	@Test
+	public void changesAfterBuildAreFound() {
+		TabCompleterBuilder builder = shop();
+		TabCompleter completer = builder.build();
+		
+		builder.addTabOption(0, "shop", "bank");
+		builder.removeTabOption(0, "shop", "buy");
+		
+		assertEquals(Arrays.asList("balance", "bank", "Browse", "Buy2"), complete(completer, "b"));
+	}
+	
+	@Test
+	public void setTabOptionsReadsFormerPlayerFormat() {
+		TabCompleterBuilder builder = new TabCompleterBuilder("shop");
+		builder.setTabOptions(1, "pay", Arrays.asList("everyone", "playerinfo+PLAYERS_ONLINE+A+C", "playerinfo+PLAYERS_ONLINE+D", "playerinfo+UNKNOWN"));
+		
+		assertTrue(builder.hasTabOptions(1, "pay", "everyone"));
+		assertFalse(builder.hasTabOptions(1, "pay", "playerinfo+PLAYERS_ONLINE+A+C"));
+		assertTrue(builder.hasTabOptions(1, "pay", Players.PLAYERS_ONLINE, new Players.PLAYERS_LETTER[] {Players.PLAYERS_LETTER.A, Players.PLAYERS_LETTER.C, Players.PLAYERS_LETTER.D}));
+		assertFalse(builder.hasTabOptions(1, "pay", Players.PLAYERS_ONLINE, Players.PLAYERS_LETTER.B));
+		assertEquals(2, builder.size(1, "pay"));
+		
+		// Players are only listed for their letters, as such no player is looked up for this prefix
+		assertEquals(Arrays.asList("everyone"), complete(builder.build(), "pay", "ev"));
+	}
+	
+	@Test
+	public void playerLettersAreMerged() {
+		TabCompleterBuilder builder = new TabCompleterBuilder("shop");
+		builder.addTabOption(1, "pay", Players.PLAYERS_ONLINE, Players.PLAYERS_LETTER.A, Players.PLAYERS_LETTER.A);
+		builder.addTabOption(1, "pay", Players.PLAYERS_ONLINE, Players.PLAYERS_LETTER.B);
+		
+		assertTrue(builder.hasTabOptions(1, "pay", Players.PLAYERS_ONLINE, new Players.PLAYERS_LETTER[] {Players.PLAYERS_LETTER.A, Players.PLAYERS_LETTER.B}));
+		
+		builder.removeTabOption(1, "pay", Players.PLAYERS_ONLINE, Players.PLAYERS_LETTER.A);
+		
+		assertFalse(builder.hasTabOptions(1, "pay", Players.PLAYERS_ONLINE, Players.PLAYERS_LETTER.A));
+		assertTrue(builder.hasTabOptions(1, "pay", Players.PLAYERS_ONLINE, Players.PLAYERS_LETTER.B));
+		
+		builder.removeTabOption(1, "pay", Players.PLAYERS_ONLINE);
+		
+		assertFalse(builder.hasTabOptions(1, "pay", Players.PLAYERS_ONLINE));
+	}
+	
+	private static TabCompleterBuilder shop() {
+		TabCompleterBuilder builder = new TabCompleterBuilder("shop");
+		
+		for(String option : new String[] {"sell", "Buy2", "buy", "Browse", "balance"})
+			builder.addTabOption(0, "shop", option);
+		
+		return builder;
+	}
+	
+	private static List<String> complete(TabCompleter completer, String... args) { return completer.onTabComplete(null, null, "shop", args); }
+}
@@ -0,0 +1,127 @@
+package com.coldfyre.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.logging.Logger;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.plugin.PluginManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Shared base of the tests that work with files. Each test gets its own temporary folder, and a minimal
+ * {@link Server} is installed once, as the FilesManager logs errors into the world container of the server.
+ * Every method of that server that is not needed returns the default value of its type.
+ * 
+ * @author Sommod
+ * @version 1.0
+ * 
+ */
+abstract class TestSupport {
+	
+	@TempDir
+	Path folder;
+	
+	/**
+	 * Installs the test server, unless a server is already installed.
+	 */
+	@BeforeAll
+	static synchronized void installServer() {
+		if(Bukkit.getServer() != null)
+			return;
+		
+		File container;
+		
+		try {
+			container = Files.createTempDirectory("cfcore-server").toFile();
+			new File(container, "plugins/Exception Logger").mkdirs();
+			container.deleteOnExit();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		
+		Logger logger = Logger.getLogger("TestServer");
+		PluginManager pluginManager = proxy(PluginManager.class, null, null, null);
+		
+		Bukkit.setServer(proxy(Server.class, logger, container, pluginManager));
+	}
+	
+	/**
+	 * Creates a random 256-bit AES key.
+	 * 
+	 * @return {@link Key}
+	 */
+	static Key newKey() {
+		byte[] bytes = new byte[32];
+		
+		new SecureRandom().nextBytes(bytes);
+		return new SecretKeySpec(bytes, "AES");
+	}
+	
+	/**
+	 * Writes the data to a file of the temporary folder.
+	 * 
+	 * @param name - Name of the file
+	 * @param data - Content of the file
+	 * @return {@link File} written
+	 * @throws IOException If the file cannot be written
+	 */
+	File write(String name, byte[] data) throws IOException { return Files.write(folder.resolve(name), data).toFile(); }
+	
+	/**
+	 * Writes the text to a file of the temporary folder as UTF-8.
+	 * 
+	 * @param name - Name of the file
+	 * @param content - Content of the file
+	 * @return {@link File} written
+	 * @throws IOException If the file cannot be written
+	 */
+	File write(String name, String content) throws IOException { return write(name, content.getBytes(StandardCharsets.UTF_8)); }
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, Logger logger, File container, PluginManager pluginManager) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+			switch(method.getName()) {
+			case "getLogger":
+				return logger;
+			case "getName":
+			case "getVersion":
+			case "getBukkitVersion":
+				return "test";
+			case "getWorldContainer":
+				return container;
+			case "getPluginManager":
+				return pluginManager;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "toString":
+				return type.getSimpleName();
+			default:
+				return defaultValue(method.getReturnType());
+			}
+		});
+	}
+	
+	private static Object defaultValue(Class<?> type) {
+		if(type == boolean.class)
+			return false;
+		if(type == char.class)
+			return '\0';
+		if(type.isPrimitive() && type != void.class)
+			return type == long.class ? 0L : type == int.class ? 0 : type == short.class ? (short) 0 : type == byte.class ? (byte) 0 : type == float.class ? 0f : 0d;
+		
+		return null;
+	}
+}